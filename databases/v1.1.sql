@@ -0,0 +1,54 @@
+# ************************************************************
+# PlayEdu v1.1 数据库变更
+# 在 v1.0-beta.1.sql 的基础上执行
+# ************************************************************
+
+
+# 游标分页:(排序字段,id) 联合索引
+# ------------------------------------------------------------
+
+ALTER TABLE `users` ADD INDEX `created_at_id` (`created_at`, `id`);
+ALTER TABLE `users` ADD INDEX `credit1_id` (`credit1`, `id`);
+ALTER TABLE `resources` ADD INDEX `type_created_at_id` (`type`, `created_at`, `id`);
+ALTER TABLE `user_course_records` ADD INDEX `user_id_created_at` (`user_id`, `created_at`, `id`);
+ALTER TABLE `user_course_hour_records` ADD INDEX `user_id_created_at` (`user_id`, `created_at`, `id`);
+
+
+# 分类子树查询:parent_chain 前缀索引
+# ------------------------------------------------------------
+
+ALTER TABLE `resource_categories` ADD INDEX `parent_chain` (`parent_chain`(191));
+
+
+# 线上课学习时长按课程聚合
+# ------------------------------------------------------------
+
+ALTER TABLE `user_learn_duration_records` ADD INDEX `course_id_duration` (`course_id`, `duration`);
+
+
+
+# 课时播放位置直方图
+# ------------------------------------------------------------
+
+CREATE TABLE `course_hour_playback_stats` (
+  `hour_id` int(11) NOT NULL DEFAULT '0',
+  `bucket` tinyint(4) NOT NULL DEFAULT '0' COMMENT '播放位置分桶[0,99]',
+  `learn_count` bigint(20) NOT NULL DEFAULT '0' COMMENT '播放到该分桶的学员数',
+  PRIMARY KEY (`hour_id`,`bucket`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+
+
+# 学员/线上课删除后的关联数据清理任务
+# ------------------------------------------------------------
+
+CREATE TABLE `purge_jobs` (
+  `id` int(11) unsigned NOT NULL AUTO_INCREMENT,
+  `type` varchar(16) NOT NULL DEFAULT '' COMMENT '类型[user:学员,course:线上课]',
+  `target_id` int(11) NOT NULL DEFAULT '0' COMMENT '被删除的学员/线上课id',
+  `created_at` timestamp NULL DEFAULT NULL,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+ALTER TABLE `user_course_records` ADD INDEX `course_id_id` (`course_id`, `id`);
+ALTER TABLE `user_course_hour_records` ADD INDEX `course_id_id` (`course_id`, `id`);
@@ -19,11 +19,13 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import xyz.playedu.api.config.UniqueNameGenerator;
 
 @SpringBootApplication
 @EnableAsync
+@EnableScheduling
 @ComponentScan(nameGenerator = UniqueNameGenerator.class)
 public class PlayeduApiApplication {
 
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.bus;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import xyz.playedu.api.domain.Course;
+import xyz.playedu.api.domain.CourseChapter;
+import xyz.playedu.api.domain.CourseHour;
+import xyz.playedu.api.service.CourseChapterService;
+import xyz.playedu.api.service.CourseHourService;
+import xyz.playedu.api.service.CourseService;
+
+import java.util.*;
+
+/** 线上课复制:课程、章节、课时及分类/部门关联 */
+@Component
+public class CourseCopyBus {
+
+    private static final int CHUNK_SIZE = 500;
+
+    @Autowired private CourseService courseService;
+
+    @Autowired private CourseChapterService chapterService;
+
+    @Autowired private CourseHourService hourService;
+
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    /**
+     * 复制线上课,章节/课时使用多行INSERT写入,最后更新一次课时数
+     *
+     * <p>复制出的线上课默认不显示,确认内容后再上架
+     *
+     * @param title 新课程标题,为空时沿用原标题
+     */
+    public Course copy(Course source, String title) {
+        return transactionTemplate.execute(
+                status -> {
+                    Course course =
+                            courseService.createWithCategoryIdsAndDepIds(
+                                    title == null || title.isBlank() ? source.getTitle() : title,
+                                    source.getThumb(),
+                                    source.getShortDesc(),
+                                    source.getIsRequired(),
+                                    0,
+                                    courseService
+                                            .getCategoryIdsByCourseId(source.getId())
+                                            .toArray(new Integer[0]),
+                                    courseService
+                                            .getDepIdsByCourseId(source.getId())
+                                            .toArray(new Integer[0]));
+                    Date now = new Date();
+
+                    // 章节:旧id=>新id
+                    List<CourseChapter> chapters =
+                            chapterService.getChaptersByCourseId(source.getId());
+                    List<CourseChapter> newChapters = new ArrayList<>();
+                    for (CourseChapter chapter : chapters) {
+                        CourseChapter newChapter = new CourseChapter();
+                        newChapter.setCourseId(course.getId());
+                        newChapter.setName(chapter.getName());
+                        newChapter.setSort(chapter.getSort());
+                        newChapter.setCreatedAt(now);
+                        newChapter.setUpdatedAt(now);
+                        newChapters.add(newChapter);
+                    }
+                    chapterService.insertBatch(newChapters);
+                    Map<Integer, Integer> chapterIdMap = new HashMap<>();
+                    for (int i = 0; i < chapters.size(); i++) {
+                        chapterIdMap.put(chapters.get(i).getId(), newChapters.get(i).getId());
+                    }
+
+                    List<CourseHour> newHours = new ArrayList<>();
+                    for (CourseHour hour : hourService.getHoursByCourseId(source.getId())) {
+                        CourseHour newHour = new CourseHour();
+                        newHour.setCourseId(course.getId());
+                        // 无章节课时的chapter_id为0
+                        newHour.setChapterId(chapterIdMap.getOrDefault(hour.getChapterId(), 0));
+                        newHour.setSort(hour.getSort());
+                        newHour.setTitle(hour.getTitle());
+                        newHour.setType(hour.getType());
+                        newHour.setRid(hour.getRid());
+                        newHour.setDuration(hour.getDuration());
+                        newHour.setCreatedAt(now);
+                        newHours.add(newHour);
+                    }
+                    for (int from = 0; from < newHours.size(); from += CHUNK_SIZE) {
+                        hourService.insertBatch(
+                                newHours.subList(
+                                        from, Math.min(from + CHUNK_SIZE, newHours.size())));
+                    }
+
+                    if (newHours.size() > 0) {
+                        courseService.updateClassHour(course.getId(), newHours.size());
+                        course.setClassHour(newHours.size());
+                    }
+                    return course;
+                });
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.bus;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import xyz.playedu.api.domain.UserCourseRecord;
+import xyz.playedu.api.event.UserCourseRecordBatchDestroyEvent;
+import xyz.playedu.api.service.UserCourseRecordService;
+
+import java.util.List;
+
+/** 线上课学员批量移除 */
+@Component
+@Slf4j
+public class CourseUserBus {
+
+    // 超过该数量时转为后台执行
+    public static final int ASYNC_THRESHOLD = 2000;
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @Autowired private UserCourseRecordService userCourseRecordService;
+
+    @Autowired private ApplicationContext ctx;
+
+    /**
+     * 按学习记录id批量移除,每批一条DELETE并发布一次批量事件
+     *
+     * @param ids 学习记录id,不属于该线上课的记录会被忽略
+     */
+    public void destroy(Integer courseId, List<Integer> ids) {
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<UserCourseRecord> records =
+                    userCourseRecordService.chunks(
+                            courseId,
+                            ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())),
+                            List.of("id", "user_id"));
+            if (records.isEmpty()) {
+                continue;
+            }
+            userCourseRecordService.destroy(
+                    courseId, records.stream().map(UserCourseRecord::getId).toList());
+            ctx.publishEvent(
+                    new UserCourseRecordBatchDestroyEvent(
+                            this,
+                            courseId,
+                            records.stream().map(UserCourseRecord::getUserId).toList()));
+        }
+    }
+
+    @Async
+    public void destroyAsync(Integer courseId, List<Integer> ids) {
+        try {
+            destroy(courseId, ids);
+        } catch (Exception e) {
+            log.error("线上课学员批量移除失败,courseId={},count={}", courseId, ids.size(), e);
+        }
+    }
+}
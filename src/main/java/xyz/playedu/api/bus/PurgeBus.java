@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.bus;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import xyz.playedu.api.caches.CourseHourPlaybackHistogram;
+import xyz.playedu.api.caches.CourseLearnStatsCache;
+import xyz.playedu.api.caches.PaginateCountCache;
+import xyz.playedu.api.domain.CourseHour;
+import xyz.playedu.api.domain.PurgeJob;
+import xyz.playedu.api.service.CourseHourService;
+import xyz.playedu.api.service.PurgeJobService;
+import xyz.playedu.api.service.UserCourseRecordService;
+import xyz.playedu.api.util.RedisDistributedLock;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 学员/线上课删除后的关联数据清理
+ *
+ * <p>删除时只写入purge_jobs,由定时任务按主键顺序小批量删除关联数据,每批之间暂停以减少锁表。 任务在全部数据删除后才移除,服务重启后会继续执行。
+ */
+@Component
+@Slf4j
+public class PurgeBus {
+
+    public static final String TYPE_USER = "user";
+    public static final String TYPE_COURSE = "course";
+
+    private static final int CHUNK_SIZE = 500;
+
+    private static final long CHUNK_INTERVAL = 50; // ms
+
+    // 表名,关联字段
+    private static final String[][] USER_TABLES = {
+        {"user_course_hour_records", "user_id"},
+        {"user_course_records", "user_id"},
+        {"user_learn_duration_records", "user_id"},
+        {"user_learn_duration_stats", "user_id"},
+        {"user_login_records", "user_id"},
+    };
+
+    private static final String[][] COURSE_TABLES = {
+        {"user_course_hour_records", "course_id"}, {"user_course_records", "course_id"},
+    };
+
+    @Autowired private PurgeJobService purgeJobService;
+
+    @Autowired private UserCourseRecordService userCourseRecordService;
+
+    @Autowired private CourseHourService courseHourService;
+
+    @Autowired private CourseLearnStatsCache courseLearnStatsCache;
+
+    @Autowired private CourseHourPlaybackHistogram playbackHistogram;
+
+    @Autowired private PaginateCountCache paginateCountCache;
+
+    @Autowired private RedisDistributedLock redisDistributedLock;
+
+    public void enqueue(String type, Integer targetId) {
+        purgeJobService.enqueue(type, targetId);
+    }
+
+    @Scheduled(fixedDelay = 5000)
+    public synchronized void run() {
+        for (PurgeJob job : purgeJobService.pending(20)) {
+            // 多实例部署时同一任务只由一个实例执行
+            String lockKey = String.format("purge-job:%d", job.getId());
+            if (!redisDistributedLock.tryLock(lockKey, 10, TimeUnit.MINUTES)) {
+                continue;
+            }
+            try {
+                purge(job);
+                purgeJobService.removeById(job.getId());
+            } catch (Exception e) {
+                log.error("关联数据清理失败,job={}", job, e);
+            } finally {
+                redisDistributedLock.releaseLock(lockKey);
+            }
+        }
+    }
+
+    private void purge(PurgeJob job) throws InterruptedException {
+        if (TYPE_USER.equals(job.getType())) {
+            List<Integer> courseIds =
+                    userCourseRecordService.getCourseIdsByUserId(job.getTargetId());
+            deleteAll(USER_TABLES, job.getTargetId());
+            courseLearnStatsCache.forget(courseIds.toArray(new Integer[0]));
+        } else if (TYPE_COURSE.equals(job.getType())) {
+            deleteAll(COURSE_TABLES, job.getTargetId());
+            // 课时播放直方图按课时记录,线上课删除后课时仍保留在course_hours中
+            playbackHistogram.forget(
+                    courseHourService.getHoursByCourseId(job.getTargetId()).stream()
+                            .map(CourseHour::getId)
+                            .toList());
+            courseLearnStatsCache.forget(job.getTargetId());
+        } else {
+            log.warn("未知的清理任务类型,job={}", job);
+            return;
+        }
+        paginateCountCache.forget(
+                PaginateCountCache.SCOPE_USER_COURSE_RECORD,
+                PaginateCountCache.SCOPE_USER_COURSE_HOUR_RECORD);
+    }
+
+    private void deleteAll(String[][] tables, Integer targetId) throws InterruptedException {
+        for (String[] table : tables) {
+            int deleted;
+            do {
+                deleted = purgeJobService.deleteChunk(table[0], table[1], targetId, CHUNK_SIZE);
+                if (deleted > 0) {
+                    Thread.sleep(CHUNK_INTERVAL);
+                }
+            } while (deleted >= CHUNK_SIZE);
+        }
+    }
+}
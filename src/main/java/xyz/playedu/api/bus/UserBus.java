@@ -21,7 +21,9 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
 import xyz.playedu.api.FCtx;
+import xyz.playedu.api.caches.DepartmentTree;
 import xyz.playedu.api.caches.UserLastLearnTimeCache;
+import xyz.playedu.api.config.PlayEduConfig;
 import xyz.playedu.api.domain.Course;
 import xyz.playedu.api.domain.CourseHour;
 import xyz.playedu.api.domain.User;
@@ -29,7 +31,7 @@ import xyz.playedu.api.event.UserLearnCourseUpdateEvent;
 import xyz.playedu.api.service.CourseService;
 import xyz.playedu.api.service.UserService;
 
-import java.util.List;
+import java.util.*;
 
 /**
  * @Author 杭州白书科技有限公司
@@ -47,6 +49,10 @@ public class UserBus {
 
     @Autowired private ApplicationContext ctx;
 
+    @Autowired private DepartmentTree departmentTree;
+
+    @Autowired private PlayEduConfig playEduConfig;
+
     public boolean canSeeCourse(User user, Course course) {
         List<Integer> courseDepIds = courseService.getDepIdsByCourseId(course.getId());
         if (courseDepIds == null || courseDepIds.size() == 0) {
@@ -57,7 +63,61 @@ public class UserBus {
         if (userDepIds == null || userDepIds.size() == 0) {
             return false;
         }
-        return CollectionUtils.intersection(courseDepIds, userDepIds).size() > 0;
+        if (!playEduConfig.getInheritCourses()) {
+            return CollectionUtils.intersection(courseDepIds, userDepIds).size() > 0;
+        }
+        // 继承模式:学员所在部门或其任一祖先部门关联了该课程即可学习
+        Set<Integer> courseDeps = new HashSet<>(courseDepIds);
+        for (Integer depId : userDepIds) {
+            if (courseDeps.contains(depId)) {
+                return true;
+            }
+            for (Integer ancestorId : departmentTree.ancestorIds(depId)) {
+                if (courseDeps.contains(ancestorId)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** 学员所在部门=>可学习其关联课程的部门(继承模式下包含祖先部门) */
+    public List<Integer> courseDepIds(List<Integer> userDepIds) {
+        if (userDepIds == null || !playEduConfig.getInheritCourses()) {
+            return userDepIds;
+        }
+        return departmentTree.withAncestorIds(userDepIds);
+    }
+
+    /** 线上课关联的部门=>可学习该课程的学员所在部门,继承模式下包含全部子孙部门 */
+    public List<Integer> learnerDepIds(List<Integer> courseDepIds) {
+        if (courseDepIds == null || !playEduConfig.getInheritCourses()) {
+            return courseDepIds;
+        }
+        return departmentTree.subtreeIds(courseDepIds);
+    }
+
+    /** 按学员所在部门分组的可学习部门课,继承模式下包含祖先部门关联的课程 */
+    public Map<Integer, List<Course>> depCoursesGroup(List<Integer> userDepIds) {
+        if (!playEduConfig.getInheritCourses()) {
+            return courseService.getDepCoursesAndShowGroup(userDepIds);
+        }
+        Map<Integer, List<Course>> group =
+                courseService.getDepCoursesAndShowGroup(departmentTree.withAncestorIds(userDepIds));
+        Map<Integer, List<Course>> result = new HashMap<>();
+        for (Integer depId : userDepIds) {
+            List<Integer> depIds = new ArrayList<>();
+            depIds.add(depId);
+            depIds.addAll(departmentTree.ancestorIds(depId));
+            // 同一课程关联到多个祖先部门时只保留一次
+            Map<Integer, Course> courses = new LinkedHashMap<>();
+            for (Integer id : depIds) {
+                group.getOrDefault(id, List.of())
+                        .forEach(course -> courses.putIfAbsent(course.getId(), course));
+            }
+            result.put(depId, new ArrayList<>(courses.values()));
+        }
+        return result;
     }
 
     // 注意，调用该方法需要考虑到并发写入问题
@@ -0,0 +1,436 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.bus;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import xyz.playedu.api.caches.PaginateCountCache;
+import xyz.playedu.api.caches.UserImportJobCache;
+import xyz.playedu.api.caches.UserSearchIndex;
+import xyz.playedu.api.constant.SystemConstant;
+import xyz.playedu.api.domain.Department;
+import xyz.playedu.api.domain.User;
+import xyz.playedu.api.domain.UserDepartment;
+import xyz.playedu.api.exception.ServiceException;
+import xyz.playedu.api.request.backend.UserImportRequest;
+import xyz.playedu.api.service.DepartmentService;
+import xyz.playedu.api.service.UserService;
+import xyz.playedu.api.service.internal.UserDepartmentService;
+import xyz.playedu.api.util.CsvUtil;
+import xyz.playedu.api.util.HelperUtil;
+import xyz.playedu.api.util.XlsxReader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * 学员批量导入
+ *
+ * <p>数据按{@link #CHUNK_SIZE}条分块并行校验,全部通过后在一个事务内分块多行INSERT写入
+ */
+@Component
+@Slf4j
+public class UserImportBus {
+
+    public static final int CHUNK_SIZE = 1000;
+
+    // 上传表格的最大数据行数
+    public static final int MAX_FILE_ROWS = 100000;
+
+    // 表头名称=>字段
+    private static final Map<String, String> HEADERS =
+            Map.ofEntries(
+                    Map.entry("部门", "deps"),
+                    Map.entry("deps", "deps"),
+                    Map.entry("邮箱", "email"),
+                    Map.entry("email", "email"),
+                    Map.entry("姓名", "name"),
+                    Map.entry("昵称", "name"),
+                    Map.entry("name", "name"),
+                    Map.entry("密码", "password"),
+                    Map.entry("password", "password"),
+                    Map.entry("身份证号", "id_card"),
+                    Map.entry("id_card", "id_card"));
+
+    @Autowired private UserService userService;
+
+    @Autowired private UserDepartmentService userDepartmentService;
+
+    @Autowired private DepartmentService departmentService;
+
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @Autowired private UserSearchIndex userSearchIndex;
+
+    @Autowired private PaginateCountCache paginateCountCache;
+
+    @Autowired private UserImportJobCache userImportJobCache;
+
+    @Data
+    public static class Result {
+        // 错误行[行号描述,错误信息]
+        private List<String[]> errors = new ArrayList<>();
+        private List<User> users = new ArrayList<>();
+        // 邮箱=>部门id
+        private Map<String, Integer[]> depIds = new HashMap<>();
+    }
+
+    /**
+     * 流式解析上传的CSV/XLSX表格,第一行为表头,数据从第二行开始
+     *
+     * <p>文件不会整体读入内存,逐行转换为导入数据
+     */
+    public List<UserImportRequest.UserItem> parse(MultipartFile file) throws ServiceException {
+        String ext =
+                file.getOriginalFilename() == null
+                        ? ""
+                        : HelperUtil.fileExt(file.getOriginalFilename());
+        RowCollector collector = new RowCollector();
+        File tmpFile = null;
+        try {
+            if ("csv".equals(ext)) {
+                try (BufferedReader reader =
+                        new BufferedReader(
+                                new InputStreamReader(
+                                        file.getInputStream(), StandardCharsets.UTF_8))) {
+                    CsvUtil.read(reader, collector);
+                }
+            } else if ("xlsx".equals(ext)) {
+                // zip需要随机读取,先落地为临时文件
+                tmpFile = File.createTempFile("user-import-", ".xlsx");
+                file.transferTo(tmpFile);
+                // 表头及超出上限的一行之后不再读取
+                XlsxReader.read(tmpFile, MAX_FILE_ROWS + 2, collector);
+            } else {
+                throw new ServiceException("仅支持csv,xlsx格式的文件");
+            }
+        } catch (ServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("学员导入文件解析失败", e);
+            throw new ServiceException("文件解析失败,请检查文件格式");
+        } finally {
+            if (tmpFile != null && !tmpFile.delete()) {
+                tmpFile.deleteOnExit();
+            }
+        }
+
+        if (collector.columns == null) {
+            throw new ServiceException("文件内容为空");
+        }
+        for (String field : new String[] {"deps", "email", "name", "password"}) {
+            if (!collector.columns.containsKey(field)) {
+                throw new ServiceException("表头缺少必填列,需包含:部门,邮箱,姓名,密码");
+            }
+        }
+        if (collector.overflow) {
+            throw new ServiceException("一次最多导入" + MAX_FILE_ROWS + "条数据");
+        }
+        return collector.items;
+    }
+
+    /** 部门链路名称(如: 总部-研发部-后端组)=>部门id */
+    public HashMap<String, Integer> depChainNameMap() {
+        List<Department> departments = departmentService.all();
+        Map<Integer, String> depId2Name =
+                departments.stream()
+                        .collect(Collectors.toMap(Department::getId, Department::getName));
+        HashMap<String, Integer> depChainNameMap = new HashMap<>();
+        for (Department tmpDepItem : departments) {
+            // 一级部门
+            if (tmpDepItem.getParentChain() == null || tmpDepItem.getParentChain().length() == 0) {
+                depChainNameMap.put(tmpDepItem.getName(), tmpDepItem.getId());
+                continue;
+            }
+
+            // 多级部门
+            String[] tmpChainIds = tmpDepItem.getParentChain().split(",");
+            List<String> tmpChainNames = new ArrayList<>();
+            for (String tmpChainId : tmpChainIds) {
+                String tmpName = depId2Name.get(Integer.valueOf(tmpChainId));
+                if (tmpName == null) {
+                    continue;
+                }
+                tmpChainNames.add(tmpName);
+            }
+            tmpChainNames.add(tmpDepItem.getName());
+            depChainNameMap.put(String.join("-", tmpChainNames), tmpDepItem.getId());
+        }
+        return depChainNameMap;
+    }
+
+    /**
+     * 校验导入数据
+     *
+     * @param startLine 表格中有效数据的起始行,用于错误提醒
+     * @param progress 每校验完一个分块回调一次,参数为该分块的行数
+     */
+    public Result validate(
+            List<UserImportRequest.UserItem> items,
+            int startLine,
+            String defaultAvatar,
+            IntConsumer progress) {
+        // 邮箱重复检测需要看到全部数据,先串行扫描一遍
+        HashMap<String, Integer> emailLines = new HashMap<>();
+        String[] repeatErrors = new String[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            String email = items.get(i).getEmail();
+            if (email == null || email.trim().length() == 0) {
+                continue;
+            }
+            Integer repeatLine = emailLines.get(email);
+            if (repeatLine != null) {
+                repeatErrors[i] = "与第" + repeatLine + "行邮箱重复";
+            } else {
+                emailLines.put(email, i + startLine);
+            }
+        }
+
+        HashMap<String, Integer> depChainNameMap = depChainNameMap();
+
+        // 分块在调用线程(导入任务的@Async线程)中串行校验,不占用接口并行查询的线程池
+        Result result = new Result();
+        for (int from = 0; from < items.size(); from += CHUNK_SIZE) {
+            int to = Math.min(from + CHUNK_SIZE, items.size());
+            Result chunkResult =
+                    validateChunk(
+                            items,
+                            from,
+                            to,
+                            startLine,
+                            defaultAvatar,
+                            repeatErrors,
+                            depChainNameMap);
+            result.getErrors().addAll(chunkResult.getErrors());
+            result.getUsers().addAll(chunkResult.getUsers());
+            result.getDepIds().putAll(chunkResult.getDepIds());
+            if (progress != null) {
+                progress.accept(to - from);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 写入学员及部门关联(多行INSERT,单个事务)
+     *
+     * @param progress 每写入一个分块回调一次,参数为该分块的学员数
+     */
+    public void store(List<User> users, Map<String, Integer[]> depIds, IntConsumer progress) {
+        transactionTemplate.executeWithoutResult(
+                status -> {
+                    for (int from = 0; from < users.size(); from += CHUNK_SIZE) {
+                        List<User> chunk =
+                                users.subList(from, Math.min(from + CHUNK_SIZE, users.size()));
+                        userService.insertBatch(chunk);
+
+                        List<UserDepartment> userDepartments = new ArrayList<>();
+                        for (User tmpUser : chunk) {
+                            Integer[] tmpDepIds = depIds.get(tmpUser.getEmail());
+                            if (tmpDepIds == null) {
+                                continue;
+                            }
+                            for (Integer tmpDepId : tmpDepIds) {
+                                UserDepartment userDepartment = new UserDepartment();
+                                userDepartment.setUserId(tmpUser.getId());
+                                userDepartment.setDepId(tmpDepId);
+                                userDepartments.add(userDepartment);
+                            }
+                        }
+                        userDepartmentService.insertBatch(userDepartments);
+
+                        if (progress != null) {
+                            progress.accept(chunk.size());
+                        }
+                    }
+                });
+
+        userSearchIndex.putAll(users);
+        paginateCountCache.forget(PaginateCountCache.SCOPE_USER);
+    }
+
+    /** 后台执行导入任务,进度与错误写入任务状态 */
+    @Async
+    public void run(
+            String jobId,
+            List<UserImportRequest.UserItem> items,
+            int startLine,
+            String defaultAvatar) {
+        try {
+            userImportJobCache.status(jobId, UserImportJobCache.STATUS_VALIDATING);
+            Result result =
+                    validate(
+                            items,
+                            startLine,
+                            defaultAvatar,
+                            count -> userImportJobCache.incrValidated(jobId, count));
+            if (result.getErrors().size() > 0) {
+                userImportJobCache.fail(jobId, "导入数据有误", result.getErrors());
+                return;
+            }
+
+            userImportJobCache.status(jobId, UserImportJobCache.STATUS_IMPORTING);
+            store(
+                    result.getUsers(),
+                    result.getDepIds(),
+                    count -> userImportJobCache.incrImported(jobId, count));
+            userImportJobCache.status(jobId, UserImportJobCache.STATUS_FINISHED);
+        } catch (Exception e) {
+            log.error("学员导入任务失败,jobId={}", jobId, e);
+            userImportJobCache.fail(jobId, "导入失败,请重试", new ArrayList<>());
+        }
+    }
+
+    private Result validateChunk(
+            List<UserImportRequest.UserItem> items,
+            int from,
+            int to,
+            int startLine,
+            String defaultAvatar,
+            String[] repeatErrors,
+            HashMap<String, Integer> depChainNameMap) {
+        Result result = new Result();
+        HashMap<String, Integer> emailLines = new HashMap<>();
+
+        for (int i = from; i < to; i++) {
+            UserImportRequest.UserItem userItem = items.get(i);
+            String line = "第" + (i + startLine) + "行";
+
+            if (userItem.getEmail() == null || userItem.getEmail().trim().length() == 0) {
+                result.getErrors().add(new String[] {line, "未输入邮箱账号"});
+            } else if (repeatErrors[i] != null) {
+                result.getErrors().add(new String[] {line, repeatErrors[i]});
+            } else {
+                emailLines.put(userItem.getEmail(), i + startLine);
+            }
+
+            // 部门数据检测
+            if (userItem.getDeps() == null || userItem.getDeps().trim().length() == 0) {
+                result.getErrors().add(new String[] {line, "未选择部门"});
+            } else {
+                String[] tmpDepList = userItem.getDeps().trim().split("\\|");
+                Integer[] tmpDepIds = new Integer[tmpDepList.length];
+                for (int j = 0; j < tmpDepList.length; j++) {
+                    Integer tmpDepId = depChainNameMap.get(tmpDepList[j]);
+                    if (tmpDepId == null || tmpDepId == 0) {
+                        result.getErrors().add(new String[] {line, "部门『" + tmpDepList[j] + "』不存在"});
+                        continue;
+                    }
+                    tmpDepIds[j] = tmpDepId;
+                }
+                result.getDepIds().put(userItem.getEmail(), tmpDepIds);
+            }
+
+            // 姓名为空检测
+            String tmpName = userItem.getName();
+            if (tmpName == null || tmpName.trim().length() == 0) {
+                result.getErrors().add(new String[] {line, "昵称为空"});
+            }
+
+            // 密码为空检测
+            String tmpPassword = userItem.getPassword();
+            if (tmpPassword == null || tmpPassword.trim().length() == 0) {
+                result.getErrors().add(new String[] {line, "密码为空"});
+            }
+
+            // 存在错误的分块不再生成待插入数据
+            if (result.getErrors().size() > 0) {
+                continue;
+            }
+
+            User tmpInsertUser = new User();
+            String tmpSalt = HelperUtil.randomString(6);
+            tmpInsertUser.setEmail(userItem.getEmail());
+            tmpInsertUser.setPassword(HelperUtil.MD5(tmpPassword + tmpSalt));
+            tmpInsertUser.setSalt(tmpSalt);
+            tmpInsertUser.setName(tmpName);
+            tmpInsertUser.setAvatar(defaultAvatar);
+            tmpInsertUser.setIdCard(userItem.getIdCard());
+            tmpInsertUser.setCreateIp(SystemConstant.INTERNAL_IP);
+            tmpInsertUser.setCreateCity(SystemConstant.INTERNAL_IP_AREA);
+            tmpInsertUser.setCreatedAt(new Date());
+            tmpInsertUser.setUpdatedAt(new Date());
+            result.getUsers().add(tmpInsertUser);
+        }
+
+        // 邮箱是否注册检测
+        if (emailLines.size() > 0) {
+            List<String> existsEmails =
+                    userService.existsEmailsByEmails(new ArrayList<>(emailLines.keySet()));
+            for (String tmpEmail : existsEmails) {
+                result.getErrors()
+                        .add(new String[] {"第" + emailLines.get(tmpEmail) + "行", "邮箱已注册"});
+            }
+        }
+
+        return result;
+    }
+
+    private static class RowCollector implements Consumer<List<String>> {
+        // 字段=>列序号,读取到表头后赋值
+        private Map<String, Integer> columns;
+        private final List<UserImportRequest.UserItem> items = new ArrayList<>();
+        private boolean overflow = false;
+
+        @Override
+        public void accept(List<String> row) {
+            if (columns == null) {
+                columns = new HashMap<>();
+                for (int i = 0; i < row.size(); i++) {
+                    String field = HEADERS.get(row.get(i).trim().toLowerCase());
+                    if (field != null) {
+                        columns.putIfAbsent(field, i);
+                    }
+                }
+                return;
+            }
+            if (items.size() >= MAX_FILE_ROWS) {
+                overflow = true;
+                return;
+            }
+
+            UserImportRequest.UserItem item = new UserImportRequest.UserItem();
+            item.setDeps(cell(row, "deps"));
+            item.setEmail(cell(row, "email"));
+            item.setName(cell(row, "name"));
+            item.setPassword(cell(row, "password"));
+            item.setIdCard(cell(row, "id_card"));
+            items.add(item);
+        }
+
+        private String cell(List<String> row, String field) {
+            Integer index = columns.get(field);
+            if (index == null || index >= row.size()) {
+                return null;
+            }
+            String value = row.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+}
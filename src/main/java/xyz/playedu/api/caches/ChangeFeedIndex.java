@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.caches;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import xyz.playedu.api.util.TransactionUtil;
+
+import java.util.*;
+
+/**
+ * 基于{@link IndexChangeFeed}同步的进程内索引
+ *
+ * <p>启动时按id分块全量构建,本实例的写入在事务提交后增量更新并记录变更id,其它实例定时读取变更并从数据库重新加载; 变更记录已被清理时全量重建。
+ *
+ * @param <T> 索引的数据行
+ */
+@Slf4j
+public abstract class ChangeFeedIndex<T> {
+
+    // 候选id超过该数量时交由数据库 LIKE 查询
+    public static final int MAX_CANDIDATES = 2000;
+
+    protected static final int CHUNK_SIZE = 1000;
+
+    @Autowired private IndexChangeFeed indexChangeFeed;
+
+    private final String feedName;
+
+    private final String description;
+
+    private volatile boolean ready = false;
+
+    // 已同步到的变更序号
+    private volatile long seq = 0;
+
+    /**
+     * @param feedName 变更记录名称
+     * @param description 日志中的索引名称
+     */
+    protected ChangeFeedIndex(String feedName, String description) {
+        this.feedName = feedName;
+        this.description = description;
+    }
+
+    /** 读取id大于lastId的至多{@link #CHUNK_SIZE}行,按id升序 */
+    protected abstract List<T> selectAfter(int lastId);
+
+    /** 读取指定id的数据行,不存在(已删除)的不返回 */
+    protected abstract List<T> selectByIds(Set<Integer> ids);
+
+    protected abstract Integer idOf(T row);
+
+    protected abstract void applyAll(List<T> rows);
+
+    protected abstract void drop(Integer id);
+
+    protected abstract void clear();
+
+    protected abstract int size();
+
+    /** 构建或增量加载完成后调用 */
+    protected void changed() {}
+
+    public synchronized void rebuild() {
+        ready = false;
+        clear();
+        // 先读取序号,构建期间的变更会在下次同步时重新加载
+        seq = indexChangeFeed.seq(feedName);
+
+        int lastId = 0;
+        while (true) {
+            List<T> rows = selectAfter(lastId);
+            applyAll(rows);
+            if (rows.size() < CHUNK_SIZE) {
+                break;
+            }
+            lastId = idOf(rows.get(rows.size() - 1));
+        }
+
+        changed();
+        ready = true;
+        log.info("{}构建完成,共{}条", description, size());
+    }
+
+    /** 同步其它实例的变更 */
+    @Scheduled(fixedDelay = 5000)
+    public synchronized void sync() {
+        if (!ready) {
+            return;
+        }
+        IndexChangeFeed.Changes changes = indexChangeFeed.since(feedName, seq);
+        if (changes == null) {
+            rebuild();
+            return;
+        }
+        if (!changes.getIds().isEmpty()) {
+            reload(changes.getIds());
+        }
+        seq = changes.getSeq();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** 事务提交后执行本实例的更新,并记录变更的id供其它实例同步 */
+    protected void afterCommit(Collection<Integer> ids, Runnable update) {
+        TransactionUtil.afterCommit(
+                () -> {
+                    update.run();
+                    indexChangeFeed.publish(feedName, ids);
+                });
+    }
+
+    /** 从数据库重新加载指定id,已删除的移除 */
+    protected void reload(Set<Integer> ids) {
+        Set<Integer> missing = new HashSet<>(ids);
+        List<T> rows = selectByIds(ids);
+        rows.forEach(row -> missing.remove(idOf(row)));
+        applyAll(rows);
+        missing.forEach(this::drop);
+        changed();
+    }
+
+    /** 候选过多时返回null,由调用方回退到数据库查询 */
+    protected static List<Integer> capped(List<Integer> ids) {
+        return ids.size() > MAX_CANDIDATES ? null : ids;
+    }
+}
@@ -23,6 +23,8 @@ import xyz.playedu.api.exception.NotFoundException;
 import xyz.playedu.api.service.CourseService;
 import xyz.playedu.api.util.RedisUtil;
 
+import java.util.*;
+
 /**
  * @Author 杭州白书科技有限公司
  *
@@ -47,6 +49,35 @@ public class CourseCache {
         return course;
     }
 
+    /**
+     * 批量读取课程,未命中的课程从数据库读取后写入缓存
+     *
+     * @return 课程id=>课程,不存在的课程不包含在结果中
+     */
+    public Map<Integer, Course> chunks(List<Integer> ids) {
+        Map<Integer, Course> courses = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return courses;
+        }
+        List<Object> values = RedisUtil.mGet(ids.stream().map(this::key).toList());
+        List<Integer> missIds = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Object value = values == null ? null : values.get(i);
+            if (value == null) {
+                missIds.add(ids.get(i));
+                continue;
+            }
+            courses.put(ids.get(i), (Course) value);
+        }
+        if (!missIds.isEmpty()) {
+            for (Course course : courseService.chunks(missIds)) {
+                put(course);
+                courses.put(course.getId(), course);
+            }
+        }
+        return courses;
+    }
+
     public void put(Course course) {
         RedisUtil.set(key(course.getId()), course, expire);
     }
@@ -0,0 +1,412 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.caches;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import xyz.playedu.api.domain.Course;
+import xyz.playedu.api.domain.CourseDepartment;
+import xyz.playedu.api.domain.ResourceCourseCategory;
+import xyz.playedu.api.mapper.CourseDepartmentMapper;
+import xyz.playedu.api.mapper.CourseMapper;
+import xyz.playedu.api.mapper.ResourceCourseCategoryMapper;
+import xyz.playedu.api.types.paginate.PaginationResult;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 已上架线上课目录(进程内)
+ *
+ * <p>保存全部已上架课程及其关联的部门/分类,按课程id升序存放在数组中。课程新建/编辑/删除时增量更新,同步方式见{@link ChangeFeedIndex}。
+ * 每次更新生成新的快照替换旧快照,读取无需加锁。 快照未就绪时查询方法返回null,由调用方回退到数据库查询。返回的课程均为副本,调用方修改不影响快照。
+ */
+@Component
+public class CourseCatalog extends ChangeFeedIndex<Course> {
+
+    private static final int[] EMPTY = new int[0];
+
+    @Autowired private CourseMapper courseMapper;
+
+    @Autowired private CourseDepartmentMapper courseDepartmentMapper;
+
+    @Autowired private ResourceCourseCategoryMapper courseCategoryMapper;
+
+    // 写入时在synchronized中修改,再由此生成快照
+    private final TreeMap<Integer, Item> items = new TreeMap<>();
+
+    private volatile Snapshot snapshot;
+
+    private static final class Item {
+        private final Course course;
+        private final int[] depIds;
+        private final int[] categoryIds;
+
+        private Item(Course course, int[] depIds, int[] categoryIds) {
+            this.course = course;
+            this.depIds = depIds;
+            this.categoryIds = categoryIds;
+        }
+    }
+
+    private static final class Snapshot {
+        private final int[] ids;
+        private final Course[] courses;
+        private final int[][] depIds;
+        private final int[][] categoryIds;
+
+        private Snapshot(Collection<Item> items) {
+            int size = items.size();
+            ids = new int[size];
+            courses = new Course[size];
+            depIds = new int[size][];
+            categoryIds = new int[size][];
+            int i = 0;
+            for (Item item : items) {
+                ids[i] = item.course.getId();
+                courses[i] = item.course;
+                depIds[i] = item.depIds;
+                categoryIds[i] = item.categoryIds;
+                i++;
+            }
+        }
+    }
+
+    public CourseCatalog() {
+        super("course-catalog", "线上课目录");
+    }
+
+    /** 课程或其关联的部门/分类变更后,从数据库重新读取该课程 */
+    public void refresh(Integer courseId) {
+        afterCommit(
+                List.of(courseId),
+                () -> {
+                    synchronized (this) {
+                        if (isReady()) {
+                            reload(Set.of(courseId));
+                        }
+                    }
+                });
+    }
+
+    public void remove(Integer courseId) {
+        afterCommit(
+                List.of(courseId),
+                () -> {
+                    synchronized (this) {
+                        if (isReady()) {
+                            drop(courseId);
+                            changed();
+                        }
+                    }
+                });
+    }
+
+    /** 分类删除后移除课程与该分类的关联 */
+    public void removeCategory(Integer categoryId) {
+        List<Integer> courseIds = new ArrayList<>();
+        afterCommit(
+                courseIds,
+                () -> {
+                    synchronized (this) {
+                        if (!isReady()) {
+                            return;
+                        }
+                        items.replaceAll(
+                                (courseId, item) -> {
+                                    if (!contains(item.categoryIds, categoryId)) {
+                                        return item;
+                                    }
+                                    courseIds.add(courseId);
+                                    int[] categoryIds =
+                                            Arrays.stream(item.categoryIds)
+                                                    .filter(id -> id != categoryId)
+                                                    .toArray();
+                                    return new Item(item.course, item.depIds, categoryIds);
+                                });
+                        changed();
+                    }
+                });
+    }
+
+    /**
+     * 未关联部门的课程
+     *
+     * @param categoryId 分类id,为null或0时不限分类
+     */
+    public List<Course> openCourses(int limit, Integer categoryId) {
+        Snapshot s = snapshot;
+        if (s == null) {
+            return null;
+        }
+        List<Course> result = new ArrayList<>();
+        for (int i = 0; i < s.ids.length && result.size() < limit; i++) {
+            if (s.depIds[i].length == 0 && matchCategory(s.categoryIds[i], categoryId)) {
+                result.add(copy(s.courses[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 关联了任一部门的课程
+     *
+     * @param categoryId 分类id,为null或0时不限分类
+     */
+    public List<Course> depCourses(List<Integer> depIds, Integer categoryId) {
+        Snapshot s = snapshot;
+        if (s == null) {
+            return null;
+        }
+        int[] deps = toArray(depIds);
+        List<Course> result = new ArrayList<>();
+        for (int i = 0; i < s.ids.length; i++) {
+            if (intersects(s.depIds[i], deps) && matchCategory(s.categoryIds[i], categoryId)) {
+                result.add(copy(s.courses[i]));
+            }
+        }
+        return result;
+    }
+
+    /** 按部门分组的关联课程 */
+    public Map<Integer, List<Course>> depCoursesGroup(List<Integer> depIds) {
+        Snapshot s = snapshot;
+        if (s == null) {
+            return null;
+        }
+        Map<Integer, List<Course>> result = new HashMap<>();
+        depIds.forEach(depId -> result.put(depId, new ArrayList<>()));
+        for (int i = 0; i < s.ids.length; i++) {
+            for (int depId : s.depIds[i]) {
+                List<Course> courses = result.get(depId);
+                if (courses != null) {
+                    courses.add(copy(s.courses[i]));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按给定顺序筛选学员可见的课程,未关联部门的课程所有学员可见,否则需加入任一关联部门
+     *
+     * @param depIds 学员所属部门id,可为null
+     */
+    public List<Course> visibleCourses(List<Integer> courseIds, List<Integer> depIds, int limit) {
+        Snapshot s = snapshot;
+        if (s == null) {
+            return null;
+        }
+        int[] deps = toArray(depIds);
+        List<Course> result = new ArrayList<>();
+        for (Integer courseId : courseIds) {
+            if (result.size() >= limit) {
+                break;
+            }
+            // 目录只包含已上架课程
+            int i = Arrays.binarySearch(s.ids, courseId);
+            if (i >= 0 && (s.depIds[i].length == 0 || intersects(s.depIds[i], deps))) {
+                result.add(copy(s.courses[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按课程id倒序分页
+     *
+     * @param depIds 部门id,为空时不限部门,包含0时匹配未关联部门的课程
+     * @param categoryIds 分类id,为空时不限分类,包含0时匹配未分类的课程
+     */
+    public PaginationResult<Course> paginate(
+            int page, int size, List<Integer> depIds, List<Integer> categoryIds) {
+        Snapshot s = snapshot;
+        if (s == null) {
+            return null;
+        }
+        int[] deps = toArray(depIds);
+        int[] categories = toArray(categoryIds);
+
+        int start = (page - 1) * size;
+        int total = 0;
+        List<Course> data = new ArrayList<>();
+        for (int i = s.ids.length - 1; i >= 0; i--) {
+            if (!matchFilter(s.depIds[i], deps) || !matchFilter(s.categoryIds[i], categories)) {
+                continue;
+            }
+            if (total >= start && data.size() < size) {
+                data.add(copy(s.courses[i]));
+            }
+            total++;
+        }
+
+        PaginationResult<Course> result = new PaginationResult<>();
+        result.setData(data);
+        result.setTotal((long) total);
+        return result;
+    }
+
+    @Override
+    protected List<Course> selectAfter(int lastId) {
+        return courseMapper.selectList(
+                new QueryWrapper<Course>()
+                        .eq("is_show", 1)
+                        .gt("id", lastId)
+                        .orderByAsc("id")
+                        .last("LIMIT " + CHUNK_SIZE));
+    }
+
+    /** 已下架的课程同样视为已删除 */
+    @Override
+    protected List<Course> selectByIds(Set<Integer> courseIds) {
+        return courseMapper.selectList(
+                new QueryWrapper<Course>().in("id", courseIds).eq("is_show", 1));
+    }
+
+    @Override
+    protected Integer idOf(Course course) {
+        return course.getId();
+    }
+
+    @Override
+    protected void applyAll(List<Course> courses) {
+        if (courses.isEmpty()) {
+            return;
+        }
+        List<Integer> courseIds = courses.stream().map(Course::getId).toList();
+        Map<Integer, int[]> depIds = depIdsGroup(courseIds);
+        Map<Integer, int[]> categoryIds = categoryIdsGroup(courseIds);
+        for (Course course : courses) {
+            items.put(
+                    course.getId(),
+                    new Item(
+                            course,
+                            depIds.getOrDefault(course.getId(), EMPTY),
+                            categoryIds.getOrDefault(course.getId(), EMPTY)));
+        }
+    }
+
+    @Override
+    protected void drop(Integer courseId) {
+        items.remove(courseId);
+    }
+
+    @Override
+    protected void clear() {
+        snapshot = null;
+        items.clear();
+    }
+
+    @Override
+    protected int size() {
+        return items.size();
+    }
+
+    /** 由修改后的课程生成新的快照 */
+    @Override
+    protected void changed() {
+        snapshot = new Snapshot(items.values());
+    }
+
+    private static Course copy(Course course) {
+        Course copy = new Course();
+        copy.setId(course.getId());
+        copy.setTitle(course.getTitle());
+        copy.setThumb(course.getThumb());
+        copy.setCharge(course.getCharge());
+        copy.setShortDesc(course.getShortDesc());
+        copy.setIsRequired(course.getIsRequired());
+        copy.setClassHour(course.getClassHour());
+        copy.setIsShow(course.getIsShow());
+        copy.setCreatedAt(copy(course.getCreatedAt()));
+        copy.setUpdatedAt(copy(course.getUpdatedAt()));
+        copy.setDeletedAt(copy(course.getDeletedAt()));
+        return copy;
+    }
+
+    private static Date copy(Date date) {
+        return date == null ? null : new Date(date.getTime());
+    }
+
+    private Map<Integer, int[]> depIdsGroup(List<Integer> courseIds) {
+        return courseDepartmentMapper
+                .selectList(new QueryWrapper<CourseDepartment>().in("course_id", courseIds))
+                .stream()
+                .collect(
+                        Collectors.groupingBy(
+                                CourseDepartment::getCourseId,
+                                Collectors.collectingAndThen(
+                                        Collectors.toList(),
+                                        list ->
+                                                list.stream()
+                                                        .mapToInt(CourseDepartment::getDepId)
+                                                        .toArray())));
+    }
+
+    private Map<Integer, int[]> categoryIdsGroup(List<Integer> courseIds) {
+        return courseCategoryMapper
+                .selectList(new QueryWrapper<ResourceCourseCategory>().in("course_id", courseIds))
+                .stream()
+                .collect(
+                        Collectors.groupingBy(
+                                ResourceCourseCategory::getCourseId,
+                                Collectors.collectingAndThen(
+                                        Collectors.toList(),
+                                        list ->
+                                                list.stream()
+                                                        .mapToInt(
+                                                                ResourceCourseCategory
+                                                                        ::getCategoryId)
+                                                        .toArray())));
+    }
+
+    private static int[] toArray(List<Integer> ids) {
+        return ids == null ? EMPTY : ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /** 筛选值为空时不限,包含0时匹配未关联的课程 */
+    private static boolean matchFilter(int[] values, int[] filter) {
+        if (filter.length == 0) {
+            return true;
+        }
+        return (values.length == 0 && contains(filter, 0)) || intersects(values, filter);
+    }
+
+    private static boolean matchCategory(int[] categoryIds, Integer categoryId) {
+        return categoryId == null || categoryId == 0 || contains(categoryIds, categoryId);
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean intersects(int[] a, int[] b) {
+        for (int v : a) {
+            if (contains(b, v)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.caches;
+
+import jakarta.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import xyz.playedu.api.service.CourseHourPlaybackStatsService;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 课时播放位置直方图
+ *
+ * <p>课时时长等分为{@link #BUCKETS}个分桶,学员最远播放位置每越过一个分桶计数一次,因此每个学员在每个分桶最多计一次, 分桶计数即为留存曲线。计数先在进程内累加,定时合并写入
+ * course_hour_playback_stats。
+ */
+@Slf4j
+@Component
+public class CourseHourPlaybackHistogram {
+
+    public static final int BUCKETS = 100;
+
+    @Autowired private CourseHourPlaybackStatsService playbackStatsService;
+
+    // 未落库的增量,落库时按分桶原子清零,不会丢失并发写入的计数;写入失败时清零的计数加回,下次重试
+    private final ConcurrentHashMap<Integer, AtomicLongArray> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 记录学员最远播放位置的推进
+     *
+     * @param from 之前的最远播放位置[s]
+     * @param to 当前的最远播放位置[s]
+     */
+    public void reach(Integer hourId, Integer totalDuration, int from, int to) {
+        if (totalDuration == null || totalDuration <= 0 || to <= from) {
+            return;
+        }
+        int start = reachedBuckets(totalDuration, from);
+        int end = reachedBuckets(totalDuration, to);
+        if (start >= end) {
+            return;
+        }
+        AtomicLongArray counts = pending.computeIfAbsent(hourId, k -> new AtomicLongArray(BUCKETS));
+        for (int i = start; i < end; i++) {
+            counts.incrementAndGet(i);
+        }
+    }
+
+    /** 课时各分桶的学员数(已落库 + 未落库) */
+    public long[] histogram(Integer hourId) {
+        long[] counts = playbackStatsService.histogram(hourId, BUCKETS);
+        AtomicLongArray unflushed = pending.get(hourId);
+        if (unflushed != null) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += unflushed.get(i);
+            }
+        }
+        return counts;
+    }
+
+    public void forget(Integer hourId) {
+        forget(List.of(hourId));
+    }
+
+    /** 删除课时的直方图,含未落库的增量 */
+    public void forget(List<Integer> hourIds) {
+        if (hourIds.isEmpty()) {
+            return;
+        }
+        hourIds.forEach(pending::remove);
+        playbackStatsService.removeByHourIds(hourIds);
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public synchronized void flush() {
+        write();
+    }
+
+    @PreDestroy
+    public synchronized void destroy() {
+        // 关闭前写入失败的计数无法再等待下一次定时任务,立即重试一次
+        if (!write() && !write()) {
+            log.error("课时播放直方图关闭前写入失败,未落库的计数已丢失");
+        }
+    }
+
+    /** 落库未写入的增量,失败时把已清零的计数加回pending */
+    private boolean write() {
+        Map<Integer, long[]> histograms = new HashMap<>();
+        pending.forEach(
+                (hourId, counts) -> {
+                    long[] values = new long[BUCKETS];
+                    boolean changed = false;
+                    for (int i = 0; i < BUCKETS; i++) {
+                        values[i] = counts.getAndSet(i, 0);
+                        changed = changed || values[i] > 0;
+                    }
+                    if (changed) {
+                        histograms.put(hourId, values);
+                    }
+                });
+        if (histograms.isEmpty()) {
+            return true;
+        }
+        try {
+            playbackStatsService.incr(histograms);
+            return true;
+        } catch (Exception e) {
+            log.error("课时播放直方图写入失败,hours={}", histograms.size(), e);
+            histograms.forEach(
+                    (hourId, values) -> {
+                        // 写入期间课时已被删除的不再加回
+                        AtomicLongArray counts = pending.get(hourId);
+                        if (counts == null) {
+                            return;
+                        }
+                        for (int i = 0; i < BUCKETS; i++) {
+                            if (values[i] > 0) {
+                                counts.addAndGet(i, values[i]);
+                            }
+                        }
+                    });
+            return false;
+        }
+    }
+
+    /** 播放到position时已越过的分桶数量 */
+    private static int reachedBuckets(int totalDuration, int position) {
+        if (position <= 0) {
+            return 0;
+        }
+        if (position >= totalDuration) {
+            return BUCKETS;
+        }
+        return (int) ((long) position * BUCKETS / totalDuration) + 1;
+    }
+}
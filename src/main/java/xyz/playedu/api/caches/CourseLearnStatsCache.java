@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.caches;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import xyz.playedu.api.constant.SystemConstant;
+import xyz.playedu.api.mapper.UserCourseRecordMapper;
+import xyz.playedu.api.mapper.UserLearnDurationRecordMapper;
+import xyz.playedu.api.types.mapper.CourseLearnStatsMapper;
+import xyz.playedu.api.util.RedisDistributedLock;
+import xyz.playedu.api.util.RedisUtil;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 线上课学习统计缓存
+ *
+ * <p>每个线上课一个hash:学习人数、学完人数、进度之和、学习时长之和。学习记录变化时增量累加,
+ * 删除学习记录时整体失效,读取未命中时按课程聚合回填。以started字段是否存在作为已加载的标记, 未加载时跳过累加。
+ * 判断与累加、回填与设置过期时间均在Lua脚本中原子执行,避免key过期后被累加出没有过期时间的残缺数据。
+ */
+@Component
+public class CourseLearnStatsCache {
+
+    private static final String keyTemplate = "course-learn-stats:%d";
+
+    private static final String lockKeyTemplate = "course-learn-stats-load:%d";
+
+    private static final String FIELD_STARTED = "started";
+    private static final String FIELD_FINISHED = "finished";
+    private static final String FIELD_PROGRESS_SUM = "progress_sum";
+    private static final String FIELD_DURATION = "duration";
+
+    // 加载与累加之间的并发误差在过期后自动修正
+    private static final long expire = 86400; // s
+
+    // ARGV: started, finished, progress_sum, duration 的增量
+    private static final RedisScript<Long> INCR_SCRIPT =
+            new DefaultRedisScript<>(
+                    "if redis.call('HEXISTS', KEYS[1], 'started') == 0 then return 0 end\n"
+                        + "local fields = {'started', 'finished', 'progress_sum', 'duration'}\n"
+                        + "for i = 1, 4 do\n"
+                        + "  local delta = tonumber(ARGV[i])\n"
+                        + "  if delta ~= 0 then redis.call('HINCRBY', KEYS[1], fields[i], delta)"
+                        + " end\n"
+                        + "end\n"
+                        + "return 1",
+                    Long.class);
+
+    // ARGV: started, finished, progress_sum, duration, 过期时间(秒)
+    private static final RedisScript<Long> LOAD_SCRIPT =
+            new DefaultRedisScript<>(
+                    "redis.call('DEL', KEYS[1])\n"
+                            + "redis.call('HSET', KEYS[1], 'started', ARGV[1], 'finished', ARGV[2],"
+                            + " 'progress_sum', ARGV[3], 'duration', ARGV[4])\n"
+                            + "redis.call('EXPIRE', KEYS[1], ARGV[5])\n"
+                            + "return 1",
+                    Long.class);
+
+    @Autowired private UserCourseRecordMapper userCourseRecordMapper;
+
+    @Autowired private UserLearnDurationRecordMapper userLearnDurationRecordMapper;
+
+    @Autowired private RedisDistributedLock redisDistributedLock;
+
+    /** 学员新增了线上课学习进度 */
+    public void incrStarted(Integer courseId, int progress, boolean finished) {
+        incr(courseId, 1, finished ? 1 : 0, progress, 0);
+    }
+
+    /**
+     * 学员的线上课学习进度变化
+     *
+     * @param finishedDelta 学完人数变化[-1,0,1]
+     */
+    public void incrProgress(Integer courseId, int progressDelta, int finishedDelta) {
+        if (progressDelta == 0 && finishedDelta == 0) {
+            return;
+        }
+        incr(courseId, 0, finishedDelta, progressDelta, 0);
+    }
+
+    public void incrDuration(Integer courseId, long duration) {
+        incr(courseId, 0, 0, 0, duration);
+    }
+
+    public void forget(Integer... courseIds) {
+        if (courseIds.length == 0) {
+            return;
+        }
+        RedisUtil.del(Arrays.stream(courseIds).map(this::key).toArray(String[]::new));
+    }
+
+    /**
+     * 批量读取线上课学习统计
+     *
+     * @return 线上课id=>{learn_user_count:学习人数, finished_user_count:学完人数, avg_progress:平均进度(万分比),
+     *     learn_duration:学习总时长[毫秒]}
+     */
+    public Map<Integer, Map<String, Long>> chunk(List<Integer> courseIds) {
+        Map<Integer, Map<String, Long>> result = new HashMap<>();
+        if (courseIds == null || courseIds.isEmpty()) {
+            return result;
+        }
+
+        List<Integer> missIds = new ArrayList<>();
+        for (Integer courseId : courseIds) {
+            Map<Object, Object> values = RedisUtil.hmGet(key(courseId));
+            if (values == null || !values.containsKey(FIELD_STARTED)) {
+                missIds.add(courseId);
+                continue;
+            }
+            result.put(
+                    courseId,
+                    format(
+                            number(values.get(FIELD_STARTED)),
+                            number(values.get(FIELD_FINISHED)),
+                            number(values.get(FIELD_PROGRESS_SUM)),
+                            number(values.get(FIELD_DURATION))));
+        }
+        if (missIds.isEmpty()) {
+            return result;
+        }
+
+        Map<Integer, CourseLearnStatsMapper> stats = new HashMap<>();
+        userCourseRecordMapper
+                .courseLearnStats(missIds)
+                .forEach(e -> stats.put(e.getCourseId(), e));
+        Map<Integer, Long> durations = new HashMap<>();
+        userLearnDurationRecordMapper
+                .courseLearnDuration(missIds)
+                .forEach(e -> durations.put(e.getCourseId(), e.getDuration()));
+
+        for (Integer courseId : missIds) {
+            CourseLearnStatsMapper item = stats.get(courseId);
+            long started = item == null ? 0L : number(item.getStarted());
+            long finished = item == null ? 0L : number(item.getFinished());
+            long progressSum = item == null ? 0L : number(item.getProgressSum());
+            long duration = number(durations.get(courseId));
+
+            // 并发回填时只由拿到锁的一方写入
+            String lockKey = String.format(lockKeyTemplate, courseId);
+            if (redisDistributedLock.tryLock(lockKey, 5, TimeUnit.SECONDS)) {
+                try {
+                    RedisUtil.handler()
+                            .execute(
+                                    LOAD_SCRIPT,
+                                    List.of(prefixedKey(courseId)),
+                                    started,
+                                    finished,
+                                    progressSum,
+                                    duration,
+                                    expire);
+                } finally {
+                    redisDistributedLock.releaseLock(lockKey);
+                }
+            }
+
+            result.put(courseId, format(started, finished, progressSum, duration));
+        }
+        return result;
+    }
+
+    private Map<String, Long> format(long started, long finished, long progressSum, long duration) {
+        Map<String, Long> data = new HashMap<>();
+        data.put("learn_user_count", started);
+        data.put("finished_user_count", finished);
+        data.put("avg_progress", started == 0 ? 0L : progressSum / started);
+        data.put("learn_duration", duration);
+        return data;
+    }
+
+    private static long number(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    /** 已加载时原子累加各字段 */
+    private void incr(
+            Integer courseId, long started, long finished, long progressSum, long duration) {
+        RedisUtil.handler()
+                .execute(
+                        INCR_SCRIPT,
+                        List.of(prefixedKey(courseId)),
+                        started,
+                        finished,
+                        progressSum,
+                        duration);
+    }
+
+    private String key(Integer courseId) {
+        return String.format(keyTemplate, courseId);
+    }
+
+    // 脚本的KEYS不经过RedisUtil,需自行加前缀
+    private String prefixedKey(Integer courseId) {
+        return SystemConstant.REDIS_PREFIX + key(courseId);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.caches;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import xyz.playedu.api.domain.Course;
+import xyz.playedu.api.mapper.CourseMapper;
+import xyz.playedu.api.util.NGramIndex;
+
+import java.util.*;
+
+/**
+ * 线上课标题/简介搜索索引(进程内)
+ *
+ * <p>课程新建/编辑/删除时增量更新,同步方式见{@link ChangeFeedIndex}
+ */
+@Component
+public class CourseSearchIndex extends ChangeFeedIndex<Course> {
+
+    @Autowired private CourseMapper courseMapper;
+
+    private final NGramIndex titleIndex = new NGramIndex();
+
+    private final NGramIndex shortDescIndex = new NGramIndex();
+
+    public CourseSearchIndex() {
+        super("course", "课程搜索索引");
+    }
+
+    public void put(Course course) {
+        afterCommit(List.of(course.getId()), () -> applyAll(List.of(course)));
+    }
+
+    public void remove(Integer courseId) {
+        afterCommit(List.of(courseId), () -> drop(courseId));
+    }
+
+    /**
+     * 按标题模糊查询课程id
+     *
+     * @return 索引未就绪或候选过多时返回null
+     */
+    public List<Integer> searchByTitle(String title) {
+        if (!isReady()) {
+            return null;
+        }
+        return capped(titleIndex.search(title));
+    }
+
+    /**
+     * 按标题或简介查询课程id
+     *
+     * @return 倒序排列的id,超过{@link #MAX_CANDIDATES}时只保留最新的部分;索引未就绪时返回null
+     */
+    public List<Integer> search(String keyword) {
+        if (!isReady()) {
+            return null;
+        }
+        TreeSet<Integer> ids = new TreeSet<>(titleIndex.search(keyword));
+        ids.addAll(shortDescIndex.search(keyword));
+        return ids.descendingSet().stream().limit(MAX_CANDIDATES).toList();
+    }
+
+    @Override
+    protected List<Course> selectAfter(int lastId) {
+        return courseMapper.selectList(
+                new QueryWrapper<Course>()
+                        .select("id", "title", "short_desc")
+                        .gt("id", lastId)
+                        .orderByAsc("id")
+                        .last("LIMIT " + CHUNK_SIZE));
+    }
+
+    @Override
+    protected List<Course> selectByIds(Set<Integer> ids) {
+        return courseMapper.selectList(
+                new QueryWrapper<Course>().select("id", "title", "short_desc").in("id", ids));
+    }
+
+    @Override
+    protected Integer idOf(Course course) {
+        return course.getId();
+    }
+
+    @Override
+    protected void applyAll(List<Course> courses) {
+        for (Course course : courses) {
+            titleIndex.put(course.getId(), course.getTitle());
+            shortDescIndex.put(course.getId(), course.getShortDesc());
+        }
+    }
+
+    @Override
+    protected void drop(Integer courseId) {
+        titleIndex.remove(courseId);
+        shortDescIndex.remove(courseId);
+    }
+
+    @Override
+    protected void clear() {
+        titleIndex.clear();
+        shortDescIndex.clear();
+    }
+
+    @Override
+    protected int size() {
+        return titleIndex.size();
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.caches;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import xyz.playedu.api.domain.Department;
+import xyz.playedu.api.mapper.DepartmentMapper;
+import xyz.playedu.api.util.RedisUtil;
+
+import java.util.*;
+
+/**
+ * 部门树索引(进程内)
+ *
+ * <p>按先序遍历为每个部门分配区间[in,out),祖先判断为O(1)的区间包含判断,子孙部门为先序数组中的连续区间。
+ * 部门数据变更后整体重建并替换快照;多实例部署时通过Redis中的版本号感知其它实例的变更。
+ */
+@Component
+@Slf4j
+public class DepartmentTree {
+
+    private static final String versionKey = "department-tree:version";
+
+    // 检查版本号的最小间隔
+    private static final long versionCheckInterval = 5000; // ms
+
+    @Autowired private DepartmentMapper departmentMapper;
+
+    private volatile Snapshot snapshot;
+
+    private volatile long versionCheckedAt = 0;
+
+    private static final class Snapshot {
+        private final long version;
+        // 部门id=>先序序号
+        private final Map<Integer, Integer> index;
+        // 先序序号=>部门id
+        private final int[] order;
+        // 子树区间右端(不含)
+        private final int[] out;
+        private final int[] parent;
+        private final int[] depth;
+
+        private Snapshot(long version, List<Department> departments) {
+            this.version = version;
+            Map<Integer, List<Department>> children = new HashMap<>();
+            Set<Integer> ids = new HashSet<>();
+            for (Department department : departments) {
+                ids.add(department.getId());
+            }
+            for (Department department : departments) {
+                // 父部门不存在的按一级部门处理
+                int parentId =
+                        ids.contains(department.getParentId()) ? department.getParentId() : 0;
+                children.computeIfAbsent(parentId, k -> new ArrayList<>()).add(department);
+            }
+
+            int size = departments.size();
+            index = new HashMap<>(size * 2);
+            order = new int[size];
+            out = new int[size];
+            parent = new int[size];
+            depth = new int[size];
+
+            // 非递归先序遍历
+            int cursor = 0;
+            Deque<int[]> stack = new ArrayDeque<>(); // [部门id, 父部门id, 深度, 0:进入/1:退出]
+            List<Department> roots = children.getOrDefault(0, new ArrayList<>());
+            for (int i = roots.size() - 1; i >= 0; i--) {
+                stack.push(new int[] {roots.get(i).getId(), 0, 0, 0});
+            }
+            while (!stack.isEmpty()) {
+                int[] frame = stack.pop();
+                if (frame[3] == 1) {
+                    out[index.get(frame[0])] = cursor;
+                    continue;
+                }
+                if (index.containsKey(frame[0])) {
+                    continue;
+                }
+                int pos = cursor++;
+                index.put(frame[0], pos);
+                order[pos] = frame[0];
+                parent[pos] = frame[1];
+                depth[pos] = frame[2];
+                stack.push(new int[] {frame[0], frame[1], frame[2], 1});
+                List<Department> items = children.getOrDefault(frame[0], new ArrayList<>());
+                for (int i = items.size() - 1; i >= 0; i--) {
+                    stack.push(new int[] {items.get(i).getId(), frame[0], frame[2] + 1, 0});
+                }
+            }
+        }
+    }
+
+    public synchronized void rebuild() {
+        long version = version();
+        List<Department> departments =
+                departmentMapper.selectList(
+                        new QueryWrapper<Department>()
+                                .select("id", "parent_id", "sort")
+                                .orderByAsc("sort", "id"));
+        snapshot = new Snapshot(version, departments);
+        versionCheckedAt = System.currentTimeMillis();
+        log.info("部门树构建完成,共{}个部门", snapshot.index.size());
+    }
+
+    /** 部门数据变更后调用:事务提交后重建,并通知其它实例 */
+    public void changed() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 同一事务内多次变更只重建一次
+            if (TransactionSynchronizationManager.hasResource(this)) {
+                return;
+            }
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            publishChange();
+                        }
+
+                        @Override
+                        public void afterCompletion(int status) {
+                            TransactionSynchronizationManager.unbindResourceIfPossible(
+                                    DepartmentTree.this);
+                        }
+                    });
+            return;
+        }
+        publishChange();
+    }
+
+    public boolean contains(Integer depId) {
+        return depId != null && snapshot().index.containsKey(depId);
+    }
+
+    /** ancestorId是否为depId的祖先部门或其本身 */
+    public boolean isAncestorOrSelf(Integer ancestorId, Integer depId) {
+        Snapshot s = snapshot();
+        Integer a = s.index.get(ancestorId);
+        Integer d = s.index.get(depId);
+        if (a == null || d == null) {
+            return false;
+        }
+        return a <= d && d < s.out[a];
+    }
+
+    /** 祖先部门id,由近及远,不含自身 */
+    public List<Integer> ancestorIds(Integer depId) {
+        Snapshot s = snapshot();
+        List<Integer> result = new ArrayList<>();
+        Integer pos = s.index.get(depId);
+        while (pos != null && s.parent[pos] != 0) {
+            result.add(s.parent[pos]);
+            pos = s.index.get(s.parent[pos]);
+        }
+        return result;
+    }
+
+    /** 部门及其全部祖先部门id,去重 */
+    public List<Integer> withAncestorIds(List<Integer> depIds) {
+        Set<Integer> result = new LinkedHashSet<>();
+        for (Integer depId : depIds) {
+            if (result.add(depId)) {
+                result.addAll(ancestorIds(depId));
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /** 子孙部门id(先序),不含自身 */
+    public List<Integer> descendantIds(Integer depId) {
+        Snapshot s = snapshot();
+        List<Integer> result = new ArrayList<>();
+        Integer pos = s.index.get(depId);
+        if (pos == null) {
+            return result;
+        }
+        for (int i = pos + 1; i < s.out[pos]; i++) {
+            result.add(s.order[i]);
+        }
+        return result;
+    }
+
+    /** 部门及其全部子孙部门id,去重 */
+    public List<Integer> subtreeIds(List<Integer> depIds) {
+        Snapshot s = snapshot();
+        Set<Integer> result = new LinkedHashSet<>();
+        for (Integer depId : depIds) {
+            Integer pos = s.index.get(depId);
+            if (pos == null || result.contains(depId)) {
+                continue;
+            }
+            for (int i = pos; i < s.out[pos]; i++) {
+                result.add(s.order[i]);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /** 部门深度,一级部门为0,部门不存在返回-1 */
+    public int depth(Integer depId) {
+        Snapshot s = snapshot();
+        Integer pos = s.index.get(depId);
+        return pos == null ? -1 : s.depth[pos];
+    }
+
+    private Snapshot snapshot() {
+        Snapshot s = snapshot;
+        long now = System.currentTimeMillis();
+        if (s != null && now - versionCheckedAt < versionCheckInterval) {
+            return s;
+        }
+        synchronized (this) {
+            if (snapshot == null || version() != snapshot.version) {
+                rebuild();
+            } else {
+                versionCheckedAt = now;
+            }
+            return snapshot;
+        }
+    }
+
+    private void publishChange() {
+        RedisUtil.incr(versionKey, 1);
+        rebuild();
+    }
+
+    private long version() {
+        Object version = RedisUtil.get(versionKey);
+        return version == null ? 0 : ((Number) version).longValue();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.caches;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import xyz.playedu.api.constant.SystemConstant;
+import xyz.playedu.api.util.RedisUtil;
+
+import java.util.*;
+
+/**
+ * 进程内索引的变更记录(Redis有序集合)
+ *
+ * <p>每个索引一个递增序号及一个有序集合,成员为"序号:id",分值为序号。写入方在事务提交后记录变更的id,
+ * 各实例定时读取本地序号之后的变更并从数据库重新加载对应数据;变更记录只保留最近的一部分,落后过多的实例全量重建。
+ */
+@Component
+public class IndexChangeFeed {
+
+    private static final String seqKeyTemplate = "index-change:%s:seq";
+
+    private static final String logKeyTemplate = "index-change:%s:log";
+
+    private static final int MAX_LOG = 10000;
+
+    // 序号递增与写入变更记录在同一脚本中完成,保证序号连续可见;成员为JSON字符串以便反序列化
+    private static final RedisScript<Long> PUBLISH_SCRIPT =
+            new DefaultRedisScript<>(
+                    "local seq = 0\n"
+                            + "for i = 1, #ARGV do\n"
+                            + "  seq = redis.call('INCR', KEYS[1])\n"
+                            + "  redis.call('ZADD', KEYS[2], seq, '\"' .. seq .. ':' .. ARGV[i] .."
+                            + " '\"')\n"
+                            + "end\n"
+                            + "redis.call('ZREMRANGEBYRANK', KEYS[2], 0, -"
+                            + (MAX_LOG + 1)
+                            + ")\n"
+                            + "return seq",
+                    Long.class);
+
+    @Data
+    @AllArgsConstructor
+    public static class Changes {
+        // 已读取到的序号
+        private long seq;
+
+        private Set<Integer> ids;
+    }
+
+    /** 记录变更的id */
+    public void publish(String name, Collection<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        RedisUtil.handler()
+                .execute(
+                        PUBLISH_SCRIPT,
+                        List.of(prefixed(seqKeyTemplate, name), prefixed(logKeyTemplate, name)),
+                        ids.toArray());
+    }
+
+    /** 当前序号,全量构建前读取 */
+    public long seq(String name) {
+        Object seq = RedisUtil.get(String.format(seqKeyTemplate, name));
+        return seq == null ? 0L : ((Number) seq).longValue();
+    }
+
+    /**
+     * 读取序号seq之后的变更
+     *
+     * @return 所需的变更记录已被清理时返回null,调用方需全量重建
+     */
+    public Changes since(String name, long seq) {
+        Set<ZSetOperations.TypedTuple<Object>> tuples =
+                RedisUtil.handler()
+                        .opsForZSet()
+                        .rangeByScoreWithScores(
+                                prefixed(logKeyTemplate, name), seq + 1, Double.MAX_VALUE);
+        if (tuples == null || tuples.isEmpty()) {
+            return seq(name) > seq ? null : new Changes(seq, new HashSet<>());
+        }
+
+        long lastSeq = seq;
+        Set<Integer> ids = new HashSet<>();
+        for (ZSetOperations.TypedTuple<Object> tuple : tuples) {
+            long itemSeq = tuple.getScore().longValue();
+            if (itemSeq != lastSeq + 1) {
+                return null;
+            }
+            lastSeq = itemSeq;
+            String member = (String) tuple.getValue();
+            ids.add(Integer.parseInt(member.substring(member.indexOf(':') + 1)));
+        }
+        return new Changes(lastSeq, ids);
+    }
+
+    private static String prefixed(String template, String name) {
+        return SystemConstant.REDIS_PREFIX + String.format(template, name);
+    }
+}
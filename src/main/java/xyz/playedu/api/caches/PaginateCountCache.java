@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.caches;
+
+import cn.hutool.core.bean.BeanUtil;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import xyz.playedu.api.config.PlayEduConfig;
+import xyz.playedu.api.util.HelperUtil;
+import xyz.playedu.api.util.RedisUtil;
+import xyz.playedu.api.util.TransactionUtil;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * 分页查询总数缓存
+ *
+ * <p>每个列表一个hash,field为规范化后的筛选条件摘要,value为总数。数据新增/删除时整体失效。
+ */
+@Component
+public class PaginateCountCache {
+
+    public static final String SCOPE_USER = "users";
+    public static final String SCOPE_COURSE = "courses";
+    public static final String SCOPE_RESOURCE = "resources";
+    public static final String SCOPE_USER_COURSE_RECORD = "user-course-records";
+    public static final String SCOPE_USER_COURSE_HOUR_RECORD = "user-course-hour-records";
+
+    // 不影响总数的筛选字段
+    private static final Set<String> IGNORE_FIELDS =
+            Set.of(
+                    "pageStart",
+                    "pageSize",
+                    "sortField",
+                    "sortAlgo",
+                    "cursorValue",
+                    "cursorId",
+                    "nameUserIds",
+                    "titleCourseIds",
+                    "nameResourceIds");
+
+    private static final String keyTemplate = "paginate-count:%s";
+
+    private static final long expire = 600; // s
+
+    @Autowired private PlayEduConfig playEduConfig;
+
+    /**
+     * 读取缓存的总数,未命中时调用counter统计并写入缓存
+     *
+     * @param estimator 无筛选条件且开启了估算时使用,可为null
+     */
+    public Long remember(
+            String scope, Object filter, Supplier<Long> counter, Supplier<Long> estimator) {
+        Map<String, Object> conditions = conditions(filter);
+        if (estimator != null && conditions.isEmpty() && playEduConfig.getEstimateTotal()) {
+            counter = estimator;
+        }
+
+        String key = String.format(keyTemplate, scope);
+        String field = HelperUtil.MD5(conditions.toString());
+        Object total = RedisUtil.hGet(key, field);
+        if (total != null) {
+            return ((Number) total).longValue();
+        }
+
+        Long count = counter.get();
+        RedisUtil.hSet(key, field, count);
+        if (RedisUtil.ttl(key) < 0) {
+            RedisUtil.expire(key, expire);
+        }
+        return count;
+    }
+
+    public Long remember(String scope, Object filter, Supplier<Long> counter) {
+        return remember(scope, filter, counter, null);
+    }
+
+    /** 事务提交后失效,避免事务内删除后被并发查询以未提交前的总数重新缓存 */
+    public void forget(String... scopes) {
+        TransactionUtil.afterCommit(
+                () -> {
+                    for (String scope : scopes) {
+                        RedisUtil.del(String.format(keyTemplate, scope));
+                    }
+                });
+    }
+
+    /** 筛选条件规范化:去掉分页/排序字段及空值,按字段名排序 */
+    private Map<String, Object> conditions(Object filter) {
+        TreeMap<String, Object> conditions = new TreeMap<>();
+        if (filter == null) {
+            return conditions;
+        }
+        BeanUtil.beanToMap(filter, false, true)
+                .forEach(
+                        (name, value) -> {
+                            if (IGNORE_FIELDS.contains(name)) {
+                                return;
+                            }
+                            if (value instanceof String && ((String) value).isEmpty()) {
+                                return;
+                            }
+                            if (value instanceof Object[]) {
+                                value = Arrays.asList((Object[]) value);
+                            }
+                            conditions.put(name, value);
+                        });
+        return conditions;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.caches;
+
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import xyz.playedu.api.constant.SystemConstant;
+import xyz.playedu.api.util.RedisUtil;
+import xyz.playedu.api.util.TransactionUtil;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 关联数量计数缓存
+ *
+ * <p>每类关联一个hash,field为部门/分类id,value为关联数量。新增、删除关联时在事务提交后增量更新; hash不存在时从数据库统计一次,过期后重新统计以修正可能的偏差。
+ * 写入与设置过期时间、判断存在与累加均在Lua脚本中原子执行,避免累加出没有过期时间的残缺hash。
+ */
+@Component
+public class RelationCountCache {
+
+    public static final String SCOPE_DEPARTMENT_USER = "department-users";
+    public static final String SCOPE_CATEGORY_RESOURCE = "category-resources";
+    public static final String SCOPE_CATEGORY_COURSE = "category-courses";
+
+    private static final String keyTemplate = "relation-count:%s";
+
+    // 占位字段,保证没有任何关联时hash依然存在
+    private static final String READY_FIELD = "ready";
+
+    private static final long expire = 86400; // s
+
+    // ARGV: 过期时间(秒), 之后依次为 id, 数量
+    private static final RedisScript<Long> LOAD_SCRIPT =
+            new DefaultRedisScript<>(
+                    "redis.call('HSET', KEYS[1], 'ready', 1)\n"
+                            + "for i = 2, #ARGV, 2 do\n"
+                            + "  redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])\n"
+                            + "end\n"
+                            + "redis.call('EXPIRE', KEYS[1], ARGV[1])\n"
+                            + "return 1",
+                    Long.class);
+
+    // ARGV: 依次为 id, 增量;hash不存在时不累加
+    private static final RedisScript<Long> INCR_SCRIPT =
+            new DefaultRedisScript<>(
+                    "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end\n"
+                            + "for i = 1, #ARGV, 2 do\n"
+                            + "  redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1])\n"
+                            + "end\n"
+                            + "return 1",
+                    Long.class);
+
+    /**
+     * 读取计数,未命中时调用loader统计并写入缓存
+     *
+     * @return id=>数量
+     */
+    public Map<Integer, Integer> counts(String scope, Supplier<Map<Integer, Integer>> loader) {
+        String key = String.format(keyTemplate, scope);
+        Map<Object, Object> data = RedisUtil.hmGet(key);
+        if (data == null || data.isEmpty()) {
+            Map<Integer, Integer> counts = loader.get();
+            List<Object> args = new ArrayList<>();
+            args.add(expire);
+            counts.forEach(
+                    (id, total) -> {
+                        args.add(id);
+                        args.add(total);
+                    });
+            RedisUtil.handler().execute(LOAD_SCRIPT, List.of(prefixedKey(scope)), args.toArray());
+            return counts;
+        }
+
+        Map<Integer, Integer> counts = new HashMap<>();
+        data.forEach(
+                (field, value) -> {
+                    if (READY_FIELD.equals(field)) {
+                        return;
+                    }
+                    int total = ((Number) value).intValue();
+                    if (total > 0) {
+                        counts.put(Integer.parseInt((String) field), total);
+                    }
+                });
+        return counts;
+    }
+
+    public void incr(String scope, Integer id, int delta) {
+        incr(scope, Map.of(id, delta));
+    }
+
+    /** 增量更新计数,存在事务时在提交后执行 */
+    public void incr(String scope, Map<Integer, Integer> deltas) {
+        if (deltas == null || deltas.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>();
+        deltas.forEach(
+                (id, delta) -> {
+                    if (delta != 0) {
+                        args.add(id);
+                        args.add(delta);
+                    }
+                });
+        if (args.isEmpty()) {
+            return;
+        }
+        // 尚未统计过的交给下次读取时从数据库统计
+        TransactionUtil.afterCommit(
+                () ->
+                        RedisUtil.handler()
+                                .execute(INCR_SCRIPT, List.of(prefixedKey(scope)), args.toArray()));
+    }
+
+    /** 按id统计列表中各id出现的次数,用于生成增量 */
+    public static Map<Integer, Integer> deltas(Collection<Integer> ids, int sign) {
+        Map<Integer, Integer> deltas = new HashMap<>();
+        if (ids != null) {
+            ids.forEach(id -> deltas.merge(id, sign, Integer::sum));
+        }
+        return deltas;
+    }
+
+    /** 部门/分类被删除时移除其计数 */
+    public void forget(String scope, Integer id) {
+        TransactionUtil.afterCommit(
+                () -> RedisUtil.hDel(String.format(keyTemplate, scope), id + ""));
+    }
+
+    /**
+     * 子树合计:每个节点的计数累加到自身及全部祖先节点
+     *
+     * @param ancestors id=>祖先id列表
+     */
+    public static Map<Integer, Integer> subtreeTotals(
+            Map<Integer, Integer> counts, Function<Integer, List<Integer>> ancestors) {
+        Map<Integer, Integer> totals = new HashMap<>();
+        counts.forEach(
+                (id, total) -> {
+                    totals.merge(id, total, Integer::sum);
+                    for (Integer ancestorId : ancestors.apply(id)) {
+                        totals.merge(ancestorId, total, Integer::sum);
+                    }
+                });
+        return totals;
+    }
+
+    // 脚本的KEYS不经过RedisUtil,需自行加前缀
+    private static String prefixedKey(String scope) {
+        return SystemConstant.REDIS_PREFIX + String.format(keyTemplate, scope);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.caches;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import xyz.playedu.api.domain.Resource;
+import xyz.playedu.api.mapper.ResourceMapper;
+import xyz.playedu.api.util.NGramIndex;
+
+import java.util.*;
+
+/**
+ * 资源名称搜索索引(进程内)
+ *
+ * <p>资源上传/编辑/删除时增量更新,同步方式见{@link ChangeFeedIndex}
+ */
+@Component
+public class ResourceSearchIndex extends ChangeFeedIndex<Resource> {
+
+    @Autowired private ResourceMapper resourceMapper;
+
+    private final NGramIndex nameIndex = new NGramIndex();
+
+    public ResourceSearchIndex() {
+        super("resource", "资源搜索索引");
+    }
+
+    public void put(Integer id, String name) {
+        afterCommit(List.of(id), () -> nameIndex.put(id, name));
+    }
+
+    public void removeAll(List<Integer> ids) {
+        afterCommit(ids, () -> ids.forEach(this::drop));
+    }
+
+    /**
+     * 按名称模糊查询资源id
+     *
+     * @return 索引未就绪或候选过多时返回null
+     */
+    public List<Integer> searchByName(String name) {
+        if (!isReady()) {
+            return null;
+        }
+        return capped(nameIndex.search(name));
+    }
+
+    @Override
+    protected List<Resource> selectAfter(int lastId) {
+        return resourceMapper.selectList(
+                new QueryWrapper<Resource>()
+                        .select("id", "name")
+                        .gt("id", lastId)
+                        .orderByAsc("id")
+                        .last("LIMIT " + CHUNK_SIZE));
+    }
+
+    @Override
+    protected List<Resource> selectByIds(Set<Integer> ids) {
+        return resourceMapper.selectList(
+                new QueryWrapper<Resource>().select("id", "name").in("id", ids));
+    }
+
+    @Override
+    protected Integer idOf(Resource resource) {
+        return resource.getId();
+    }
+
+    @Override
+    protected void applyAll(List<Resource> resources) {
+        resources.forEach(item -> nameIndex.put(item.getId(), item.getName()));
+    }
+
+    @Override
+    protected void drop(Integer id) {
+        nameIndex.remove(id);
+    }
+
+    @Override
+    protected void clear() {
+        nameIndex.clear();
+    }
+
+    @Override
+    protected int size() {
+        return nameIndex.size();
+    }
+}
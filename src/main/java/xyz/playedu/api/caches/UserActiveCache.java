@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.caches;
+
+import cn.hutool.core.date.DateField;
+import cn.hutool.core.date.DateTime;
+import cn.hutool.core.date.DateUtil;
+
+import org.springframework.stereotype.Component;
+
+import xyz.playedu.api.util.RedisUtil;
+
+import java.util.*;
+
+/**
+ * 活跃学员数(Redis HyperLogLog)
+ *
+ * <p>每天一个全站及每个部门一个HyperLogLog,成员为学员id。周/月活跃数由当期每天的HyperLogLog合并估算, 每个键固定占用不超过12KB,误差约0.81%。
+ */
+@Component
+public class UserActiveCache {
+
+    public static final String PERIOD_DAY = "day";
+    public static final String PERIOD_WEEK = "week";
+    public static final String PERIOD_MONTH = "month";
+
+    private static final String keyTemplate = "user-active:%s";
+
+    private static final String depKeyTemplate = "user-active:dep-%d:%s";
+
+    private static final long expire = 86400 * 93; // s
+
+    public void add(Integer userId, List<Integer> depIds) {
+        String date = new DateTime().toDateStr();
+        // 全站及各部门的写入在一个管道中完成
+        RedisUtil.pipelined(
+                pipeline -> {
+                    String key = String.format(keyTemplate, date);
+                    pipeline.pfAdd(key, userId);
+                    pipeline.expire(key, expire);
+
+                    if (depIds == null) {
+                        return;
+                    }
+                    for (Integer depId : depIds) {
+                        String depKey = String.format(depKeyTemplate, depId, date);
+                        pipeline.pfAdd(depKey, userId);
+                        pipeline.expire(depKey, expire);
+                    }
+                });
+    }
+
+    /**
+     * 指定日期所在周期内的活跃学员数
+     *
+     * @param period 周期[day,week,month],周从周一开始,周/月统计到date当天为止
+     * @param depId 部门id,为null或0时统计全站
+     */
+    public Long count(String period, Integer depId, Date date) {
+        Date start = date;
+        if (PERIOD_WEEK.equals(period)) {
+            start = DateUtil.beginOfWeek(date);
+        } else if (PERIOD_MONTH.equals(period)) {
+            start = DateUtil.beginOfMonth(date);
+        }
+
+        List<String> keys = new ArrayList<>();
+        for (DateTime day : DateUtil.rangeToList(start, date, DateField.DAY_OF_YEAR)) {
+            keys.add(key(depId, day.toDateStr()));
+        }
+        Long count = RedisUtil.pfCount(keys.toArray(new String[0]));
+        return count == null ? 0L : count;
+    }
+
+    /**
+     * 最近N天每天的活跃学员数
+     *
+     * @return 有序的 日期=>活跃学员数
+     */
+    public LinkedHashMap<String, Long> days(Integer depId, int size) {
+        LinkedHashMap<String, Long> result = new LinkedHashMap<>();
+        DateTime today = DateUtil.beginOfDay(new Date());
+        for (int i = size - 1; i >= 0; i--) {
+            String date = DateUtil.offsetDay(today, -i).toDateStr();
+            Long count = RedisUtil.pfCount(key(depId, date));
+            result.put(date, count == null ? 0L : count);
+        }
+        return result;
+    }
+
+    /** 当天的活跃数据是否存在(上线前的日期没有数据) */
+    public boolean has(Date date) {
+        return RedisUtil.exists(String.format(keyTemplate, new DateTime(date).toDateStr()));
+    }
+
+    private String key(Integer depId, String date) {
+        if (depId == null || depId == 0) {
+            return String.format(keyTemplate, date);
+        }
+        return String.format(depKeyTemplate, depId, date);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.caches;
+
+import org.springframework.stereotype.Component;
+
+import xyz.playedu.api.util.HelperUtil;
+import xyz.playedu.api.util.RedisUtil;
+
+import java.util.*;
+
+/**
+ * 学员导入任务状态
+ *
+ * <p>每个任务一个hash,记录状态、进度计数与错误行,供后台轮询。每次写入刷新updated_at作为心跳, 未结束的任务超过一定时间没有心跳(如服务重启导致任务丢失)时标记为失败。
+ */
+@Component
+public class UserImportJobCache {
+
+    public static final String STATUS_PENDING = "pending";
+    public static final String STATUS_VALIDATING = "validating";
+    public static final String STATUS_IMPORTING = "importing";
+    public static final String STATUS_FINISHED = "finished";
+    public static final String STATUS_FAILED = "failed";
+
+    // 返回给后台的错误行数量上限
+    public static final int MAX_ERRORS = 1000;
+
+    private static final String keyTemplate = "user-import-job:%s";
+
+    private static final long expire = 86400; // s
+
+    // 未结束的任务超过该时间没有心跳视为中断
+    private static final long staleTimeout = 600 * 1000L; // ms
+
+    public String create(Integer adminId, int total) {
+        String jobId = HelperUtil.uuid();
+        String key = key(jobId);
+        RedisUtil.hSet(key, "status", STATUS_PENDING);
+        RedisUtil.hSet(key, "admin_id", adminId);
+        RedisUtil.hSet(key, "total", total);
+        RedisUtil.hSet(key, "created_at", System.currentTimeMillis());
+        RedisUtil.hSet(key, "updated_at", System.currentTimeMillis());
+        RedisUtil.hIncr(key, "validated", 0);
+        RedisUtil.hIncr(key, "imported", 0);
+        RedisUtil.expire(key, expire);
+        return jobId;
+    }
+
+    public void status(String jobId, String status) {
+        RedisUtil.hmSet(
+                key(jobId),
+                Map.<String, Object>of("status", status, "updated_at", System.currentTimeMillis()));
+    }
+
+    public void incrValidated(String jobId, int count) {
+        RedisUtil.hIncr(key(jobId), "validated", count);
+        heartbeat(jobId);
+    }
+
+    public void incrImported(String jobId, int count) {
+        RedisUtil.hIncr(key(jobId), "imported", count);
+        heartbeat(jobId);
+    }
+
+    public void fail(String jobId, String message, List<String[]> errors) {
+        String key = key(jobId);
+        List<List<String>> items = new ArrayList<>();
+        for (int i = 0; i < errors.size() && i < MAX_ERRORS; i++) {
+            items.add(new ArrayList<>(Arrays.asList(errors.get(i))));
+        }
+        RedisUtil.hSet(key, "message", message);
+        RedisUtil.hSet(key, "error_count", errors.size());
+        RedisUtil.hSet(key, "errors", items);
+        RedisUtil.hSet(key, "status", STATUS_FAILED);
+        heartbeat(jobId);
+    }
+
+    /**
+     * 任务状态,未结束且心跳超时的任务标记为失败
+     *
+     * @param adminId 只能读取该管理员创建的任务
+     * @return 任务不存在、已过期或不属于该管理员时返回null
+     */
+    public Map<String, Object> get(String jobId, Integer adminId) {
+        Map<String, Object> result = read(jobId);
+        if (result == null || number(result.get("admin_id")) != adminId) {
+            return null;
+        }
+        Object status = result.get("status");
+        if (!STATUS_FINISHED.equals(status)
+                && !STATUS_FAILED.equals(status)
+                && System.currentTimeMillis() - number(result.get("updated_at")) > staleTimeout) {
+            fail(jobId, "导入任务已中断,请重新导入", new ArrayList<>());
+            result = read(jobId);
+        }
+        return result;
+    }
+
+    private Map<String, Object> read(String jobId) {
+        Map<Object, Object> data = RedisUtil.hmGet(key(jobId));
+        if (data == null || data.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> result = new HashMap<>();
+        data.forEach((field, value) -> result.put(field.toString(), value));
+        result.put("job_id", jobId);
+        return result;
+    }
+
+    private void heartbeat(String jobId) {
+        RedisUtil.hSet(key(jobId), "updated_at", System.currentTimeMillis());
+    }
+
+    private static long number(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    private String key(String jobId) {
+        return String.format(keyTemplate, jobId);
+    }
+}
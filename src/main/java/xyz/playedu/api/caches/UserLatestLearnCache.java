@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.caches;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import xyz.playedu.api.domain.UserCourseHourRecord;
+import xyz.playedu.api.service.UserCourseHourRecordService;
+import xyz.playedu.api.util.RedisUtil;
+
+import java.util.*;
+
+/**
+ * 学员最近学习的线上课(Redis有序集合)
+ *
+ * <p>成员为线上课id,分值为最近学习时间戳[毫秒],另用一个hash记录每个线上课最近学习的课时id。 每个学员最多保留{@link #SIZE}个线上课,缓存不存在时从课时学习记录回填。
+ */
+@Component
+public class UserLatestLearnCache {
+
+    public static final int SIZE = 100;
+
+    private static final String keyTemplate = "user-latest-learn:%d";
+
+    private static final String hourKeyTemplate = "user-latest-learn:hours:%d";
+
+    private static final long expire = 86400 * 30; // s
+
+    @Autowired private UserCourseHourRecordService userCourseHourRecordService;
+
+    /** 学习课时后调用,缓存未回填时跳过(回填时会从学习记录读取到本次学习) */
+    public void put(Integer userId, Integer courseId, Integer hourId) {
+        String key = String.format(keyTemplate, userId);
+        if (!RedisUtil.exists(key)) {
+            return;
+        }
+        String hourKey = String.format(hourKeyTemplate, userId);
+        RedisUtil.zAdd(key, courseId, System.currentTimeMillis());
+        RedisUtil.hSet(hourKey, String.valueOf(courseId), hourId);
+
+        // 超出的部分按时间从旧到新移除
+        Set<ZSetOperations.TypedTuple<Object>> overflow =
+                RedisUtil.zRevRangeWithScores(key, SIZE, -1);
+        if (overflow != null && !overflow.isEmpty()) {
+            Object[] courseIds =
+                    overflow.stream().map(ZSetOperations.TypedTuple::getValue).toArray();
+            RedisUtil.zRemove(key, courseIds);
+            RedisUtil.hDel(hourKey, Arrays.stream(courseIds).map(String::valueOf).toArray());
+        }
+
+        RedisUtil.expire(key, expire);
+        RedisUtil.expire(hourKey, expire);
+    }
+
+    /**
+     * 最近学习的线上课
+     *
+     * @return 按学习时间倒序的 线上课id=>最近学习的课时id
+     */
+    public LinkedHashMap<Integer, Integer> get(Integer userId) {
+        String key = String.format(keyTemplate, userId);
+        String hourKey = String.format(hourKeyTemplate, userId);
+        if (!RedisUtil.exists(key)) {
+            return load(userId);
+        }
+
+        LinkedHashMap<Integer, Integer> result = new LinkedHashMap<>();
+        Set<ZSetOperations.TypedTuple<Object>> tuples =
+                RedisUtil.zRevRangeWithScores(key, 0, SIZE - 1);
+        if (tuples == null) {
+            return result;
+        }
+        Map<Object, Object> hours = RedisUtil.hmGet(hourKey);
+        for (ZSetOperations.TypedTuple<Object> tuple : tuples) {
+            Integer courseId = (Integer) tuple.getValue();
+            result.put(courseId, (Integer) hours.get(String.valueOf(courseId)));
+        }
+        return result;
+    }
+
+    /** 学员的学习记录被删除,下次读取时重新回填 */
+    public void forget(Integer userId) {
+        RedisUtil.del(String.format(keyTemplate, userId), String.format(hourKeyTemplate, userId));
+    }
+
+    public void forget(List<Integer> userIds) {
+        List<String> keys = new ArrayList<>();
+        for (Integer userId : userIds) {
+            keys.add(String.format(keyTemplate, userId));
+            keys.add(String.format(hourKeyTemplate, userId));
+        }
+        RedisUtil.del(keys.toArray(new String[0]));
+    }
+
+    private LinkedHashMap<Integer, Integer> load(Integer userId) {
+        LinkedHashMap<Integer, Integer> result = new LinkedHashMap<>();
+        List<UserCourseHourRecord> records =
+                userCourseHourRecordService.getLatestCourseIds(userId, SIZE);
+        if (records == null || records.isEmpty()) {
+            return result;
+        }
+
+        String key = String.format(keyTemplate, userId);
+        String hourKey = String.format(hourKeyTemplate, userId);
+        Map<String, Object> hours = new HashMap<>();
+        for (UserCourseHourRecord record : records) {
+            if (result.containsKey(record.getCourseId())) {
+                continue;
+            }
+            result.put(record.getCourseId(), record.getHourId());
+            hours.put(String.valueOf(record.getCourseId()), record.getHourId());
+            Date learnAt =
+                    record.getUpdatedAt() == null ? record.getCreatedAt() : record.getUpdatedAt();
+            RedisUtil.zAdd(key, record.getCourseId(), learnAt.getTime());
+        }
+        RedisUtil.hmSet(hourKey, hours);
+        RedisUtil.expire(key, expire);
+        RedisUtil.expire(hourKey, expire);
+        return result;
+    }
+}
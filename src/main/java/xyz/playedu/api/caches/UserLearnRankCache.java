@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.caches;
+
+import cn.hutool.core.date.DateTime;
+import cn.hutool.core.date.DateUtil;
+
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import xyz.playedu.api.util.RedisUtil;
+
+import java.util.*;
+
+/**
+ * 学员学习时长排行榜(Redis有序集合)
+ *
+ * <p>按天/周/月分别维护全站及部门维度的排行榜,成员为学员id,分值为学习时长[毫秒]
+ */
+@Component
+public class UserLearnRankCache {
+
+    public static final String PERIOD_DAY = "day";
+    public static final String PERIOD_WEEK = "week";
+    public static final String PERIOD_MONTH = "month";
+
+    private static final String keyTemplate = "user-learn-rank:%s:%s";
+
+    private static final String depKeyTemplate = "user-learn-rank:dep-%d:%s:%s";
+
+    private static final long dayExpire = 86400 * 7; // s
+
+    private static final long weekExpire = 86400 * 21; // s
+
+    private static final long monthExpire = 86400 * 93; // s
+
+    public void incr(Integer userId, List<Integer> depIds, Long duration) {
+        Date now = new Date();
+        // 全站及各部门、各周期的写入在一个管道中完成
+        RedisUtil.pipelined(
+                pipeline -> {
+                    for (String period : new String[] {PERIOD_DAY, PERIOD_WEEK, PERIOD_MONTH}) {
+                        String periodKey = periodKey(period, now);
+                        long expire = expire(period);
+
+                        String key = String.format(keyTemplate, period, periodKey);
+                        pipeline.zIncr(key, userId, duration);
+                        pipeline.expire(key, expire);
+
+                        if (depIds == null) {
+                            continue;
+                        }
+                        for (Integer depId : depIds) {
+                            String depKey = String.format(depKeyTemplate, depId, period, periodKey);
+                            pipeline.zIncr(depKey, userId, duration);
+                            pipeline.expire(depKey, expire);
+                        }
+                    }
+                });
+    }
+
+    /** 学员被删除:从当前各周期的全站排行榜移除 */
+    public void remove(Integer userId) {
+        Date now = new Date();
+        for (String period : new String[] {PERIOD_DAY, PERIOD_WEEK, PERIOD_MONTH}) {
+            RedisUtil.zRemove(String.format(keyTemplate, period, periodKey(period, now)), userId);
+        }
+    }
+
+    /** 学员退出部门:从这些部门当前各周期的排行榜移除 */
+    public void removeDeps(Integer userId, Collection<Integer> depIds) {
+        if (depIds == null || depIds.isEmpty()) {
+            return;
+        }
+        Date now = new Date();
+        for (String period : new String[] {PERIOD_DAY, PERIOD_WEEK, PERIOD_MONTH}) {
+            String periodKey = periodKey(period, now);
+            for (Integer depId : depIds) {
+                RedisUtil.zRemove(String.format(depKeyTemplate, depId, period, periodKey), userId);
+            }
+        }
+    }
+
+    /**
+     * 排行榜前N名
+     *
+     * @param period 周期[day,week,month]
+     * @param depId 部门id,为null或0时读取全站排行榜
+     * @param size 读取数量
+     * @return 有序的 学员id=>学习时长
+     */
+    public LinkedHashMap<Integer, Long> top(String period, Integer depId, int size) {
+        LinkedHashMap<Integer, Long> result = new LinkedHashMap<>();
+        Set<ZSetOperations.TypedTuple<Object>> tuples =
+                RedisUtil.zRevRangeWithScores(key(period, depId), 0, size - 1);
+        if (tuples == null) {
+            return result;
+        }
+        for (ZSetOperations.TypedTuple<Object> tuple : tuples) {
+            if (tuple.getValue() == null || tuple.getScore() == null) {
+                continue;
+            }
+            result.put((Integer) tuple.getValue(), tuple.getScore().longValue());
+        }
+        return result;
+    }
+
+    /**
+     * 学员在排行榜中的名次(从1开始)
+     *
+     * @return 未上榜返回null
+     */
+    public Long rank(String period, Integer depId, Integer userId) {
+        Long rank = RedisUtil.zRevRank(key(period, depId), userId);
+        return rank == null ? null : rank + 1;
+    }
+
+    public Long duration(String period, Integer depId, Integer userId) {
+        Double score = RedisUtil.zScore(key(period, depId), userId);
+        return score == null ? 0L : score.longValue();
+    }
+
+    public Long total(String period, Integer depId) {
+        Long total = RedisUtil.zCard(key(period, depId));
+        return total == null ? 0L : total;
+    }
+
+    public boolean isPeriod(String period) {
+        return PERIOD_DAY.equals(period)
+                || PERIOD_WEEK.equals(period)
+                || PERIOD_MONTH.equals(period);
+    }
+
+    private String key(String period, Integer depId) {
+        String periodKey = periodKey(period, new Date());
+        if (depId == null || depId == 0) {
+            return String.format(keyTemplate, period, periodKey);
+        }
+        return String.format(depKeyTemplate, depId, period, periodKey);
+    }
+
+    private String periodKey(String period, Date date) {
+        if (PERIOD_WEEK.equals(period)) {
+            // 以周一的日期作为当周的标识
+            return DateUtil.beginOfWeek(date).toDateStr();
+        }
+        if (PERIOD_MONTH.equals(period)) {
+            return DateUtil.format(date, "yyyy-MM");
+        }
+        return new DateTime(date).toDateStr();
+    }
+
+    private long expire(String period) {
+        if (PERIOD_WEEK.equals(period)) {
+            return weekExpire;
+        }
+        if (PERIOD_MONTH.equals(period)) {
+            return monthExpire;
+        }
+        return dayExpire;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.caches;
+
+import cn.hutool.core.date.DateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import xyz.playedu.api.service.UserLearnDurationStatsService;
+import xyz.playedu.api.util.RedisDistributedLock;
+import xyz.playedu.api.util.RedisUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 学员学习概况缓存
+ *
+ * <p>学习时长由学习事件增量累加,首次读取时从学习时长统计表加载
+ */
+@Component
+public class UserLearnSummaryCache {
+
+    private static final String durationKeyTemplate = "user-learn-summary:duration:%d";
+
+    private static final String FIELD_LEARN_DURATION = "learn_duration";
+
+    private static final String FIELD_TODAY_LEARN_DURATION = "today_learn_duration:%s";
+
+    // 与学员上报学习时长(ping)使用同一把锁,保证加载与增量累加互斥
+    private static final String lockKeyTemplate = "ping:%d";
+
+    private static final long expire = 86400 * 7; // s
+
+    @Autowired private UserLearnDurationStatsService userLearnDurationStatsService;
+
+    @Autowired private RedisDistributedLock redisDistributedLock;
+
+    /**
+     * 学习时长
+     *
+     * @return today_learn_duration=>今日学习时长, learn_duration=>学习总时长[单位:毫秒]
+     */
+    public Map<String, Long> durations(Integer userId) {
+        String key = String.format(durationKeyTemplate, userId);
+        String todayField = todayField();
+
+        Map<String, Long> durations = new HashMap<>();
+        Object learnDuration = RedisUtil.hGet(key, FIELD_LEARN_DURATION);
+        Object todayLearnDuration = RedisUtil.hGet(key, todayField);
+        if (learnDuration != null && todayLearnDuration != null) {
+            durations.put("learn_duration", ((Number) learnDuration).longValue());
+            durations.put("today_learn_duration", ((Number) todayLearnDuration).longValue());
+            return durations;
+        }
+
+        String lockKey = String.format(lockKeyTemplate, userId);
+        boolean locked = redisDistributedLock.tryLock(lockKey, 5, TimeUnit.SECONDS);
+        try {
+            long total = userLearnDurationStatsService.userDuration(userId);
+            long today = userLearnDurationStatsService.todayUserDuration(userId);
+            // 未拿到锁时直接返回数据库结果,不写缓存
+            if (locked) {
+                // 使用hIncr写入原始数值,后续才能继续累加
+                if (!RedisUtil.hExists(key, FIELD_LEARN_DURATION)) {
+                    RedisUtil.hIncr(key, FIELD_LEARN_DURATION, total);
+                }
+                if (!RedisUtil.hExists(key, todayField)) {
+                    RedisUtil.hIncr(key, todayField, today);
+                }
+                RedisUtil.expire(key, expire);
+            }
+            durations.put("learn_duration", total);
+            durations.put("today_learn_duration", today);
+            return durations;
+        } finally {
+            if (locked) {
+                redisDistributedLock.releaseLock(lockKey);
+            }
+        }
+    }
+
+    /** 累加学习时长,仅在缓存已加载时累加 */
+    public void incrDuration(Integer userId, long duration) {
+        String key = String.format(durationKeyTemplate, userId);
+        if (RedisUtil.hExists(key, FIELD_LEARN_DURATION)) {
+            RedisUtil.hIncr(key, FIELD_LEARN_DURATION, duration);
+        }
+        String todayField = todayField();
+        if (RedisUtil.hExists(key, todayField)) {
+            RedisUtil.hIncr(key, todayField, duration);
+        }
+    }
+
+    public void forget(Integer userId) {
+        RedisUtil.del(String.format(durationKeyTemplate, userId));
+    }
+
+    private String todayField() {
+        return String.format(FIELD_TODAY_LEARN_DURATION, new DateTime().toDateStr());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.caches;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import xyz.playedu.api.domain.User;
+import xyz.playedu.api.mapper.UserMapper;
+import xyz.playedu.api.util.NGramIndex;
+
+import java.util.*;
+
+/**
+ * 学员姓名搜索索引(进程内)
+ *
+ * <p>学员新增/编辑/删除时增量更新,同步方式见{@link ChangeFeedIndex}
+ */
+@Component
+public class UserSearchIndex extends ChangeFeedIndex<User> {
+
+    @Autowired private UserMapper userMapper;
+
+    private final NGramIndex nameIndex = new NGramIndex();
+
+    public UserSearchIndex() {
+        super("user", "学员搜索索引");
+    }
+
+    public void put(User user) {
+        putAll(List.of(user));
+    }
+
+    public void putAll(List<User> users) {
+        afterCommit(users.stream().map(User::getId).toList(), () -> applyAll(users));
+    }
+
+    public void remove(Integer userId) {
+        afterCommit(List.of(userId), () -> drop(userId));
+    }
+
+    /**
+     * 按姓名模糊查询学员id
+     *
+     * @return 索引未就绪或候选过多时返回null
+     */
+    public List<Integer> searchByName(String name) {
+        if (!isReady()) {
+            return null;
+        }
+        return capped(nameIndex.search(name));
+    }
+
+    @Override
+    protected List<User> selectAfter(int lastId) {
+        return userMapper.selectList(
+                new QueryWrapper<User>()
+                        .select("id", "name")
+                        .gt("id", lastId)
+                        .orderByAsc("id")
+                        .last("LIMIT " + CHUNK_SIZE));
+    }
+
+    @Override
+    protected List<User> selectByIds(Set<Integer> ids) {
+        return userMapper.selectList(new QueryWrapper<User>().select("id", "name").in("id", ids));
+    }
+
+    @Override
+    protected Integer idOf(User user) {
+        return user.getId();
+    }
+
+    @Override
+    protected void applyAll(List<User> users) {
+        for (User user : users) {
+            if (user.getName() != null) {
+                nameIndex.put(user.getId(), user.getName());
+            }
+        }
+    }
+
+    @Override
+    protected void drop(Integer userId) {
+        nameIndex.remove(userId);
+    }
+
+    @Override
+    protected void clear() {
+        nameIndex.clear();
+    }
+
+    @Override
+    protected int size() {
+        return nameIndex.size();
+    }
+}
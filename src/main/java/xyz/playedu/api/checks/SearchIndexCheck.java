@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.checks;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import xyz.playedu.api.caches.CourseCatalog;
+import xyz.playedu.api.caches.CourseSearchIndex;
+import xyz.playedu.api.caches.DepartmentTree;
+import xyz.playedu.api.caches.ResourceSearchIndex;
+import xyz.playedu.api.caches.UserSearchIndex;
+
+/** 启动时构建进程内搜索索引、线上课目录及部门树 */
+@Order(20000)
+@Component
+public class SearchIndexCheck implements ApplicationRunner {
+
+    @Autowired private UserSearchIndex userSearchIndex;
+
+    @Autowired private CourseSearchIndex courseSearchIndex;
+
+    @Autowired private ResourceSearchIndex resourceSearchIndex;
+
+    @Autowired private CourseCatalog courseCatalog;
+
+    @Autowired private DepartmentTree departmentTree;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        userSearchIndex.rebuild();
+        courseSearchIndex.rebuild();
+        resourceSearchIndex.rebuild();
+        courseCatalog.rebuild();
+        departmentTree.rebuild();
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.config;
+
+import jakarta.servlet.MultipartConfigElement;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 上传大小限制
+ *
+ * <p>容器解析multipart的上限取spring.servlet.multipart与学员导入上限中的较大者,各接口的实际限制由{@link
+ * xyz.playedu.api.middleware.UploadSizeFilter}校验。
+ */
+@Configuration
+public class MultipartConfig {
+
+    @Bean
+    public MultipartConfigElement multipartConfigElement(
+            MultipartProperties properties,
+            @Value("${playedu.user-import.max-upload-size:20MB}") DataSize importMaxSize) {
+        MultipartConfigElement defaults = properties.createMultipartConfig();
+        return new MultipartConfigElement(
+                defaults.getLocation(),
+                max(defaults.getMaxFileSize(), importMaxSize.toBytes()),
+                max(defaults.getMaxRequestSize(), importMaxSize.toBytes()),
+                defaults.getFileSizeThreshold());
+    }
+
+    // -1表示不限制
+    private static long max(long size, long importSize) {
+        return size < 0 ? size : Math.max(size, importSize);
+    }
+}
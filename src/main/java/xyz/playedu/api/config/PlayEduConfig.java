@@ -32,4 +32,10 @@ public class PlayEduConfig {
 
     @Value("${playedu.limiter.limit}")
     private Long limiterLimit;
+
+    @Value("${playedu.paginate.estimate-total:false}")
+    private Boolean estimateTotal;
+
+    @Value("${playedu.department.inherit-courses:false}")
+    private Boolean inheritCourses;
 }
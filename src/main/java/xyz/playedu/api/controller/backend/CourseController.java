@@ -25,11 +25,14 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import xyz.playedu.api.BCtx;
+import xyz.playedu.api.bus.CourseCopyBus;
+import xyz.playedu.api.caches.CourseLearnStatsCache;
 import xyz.playedu.api.constant.BPermissionConstant;
 import xyz.playedu.api.domain.*;
 import xyz.playedu.api.event.CourseDestroyEvent;
 import xyz.playedu.api.exception.NotFoundException;
 import xyz.playedu.api.middleware.BackendPermissionMiddleware;
+import xyz.playedu.api.request.backend.CourseCopyRequest;
 import xyz.playedu.api.request.backend.CourseRequest;
 import xyz.playedu.api.service.*;
 import xyz.playedu.api.types.JsonResponse;
@@ -55,6 +58,10 @@ public class CourseController {
 
     @Autowired private DepartmentService departmentService;
 
+    @Autowired private CourseLearnStatsCache courseLearnStatsCache;
+
+    @Autowired private CourseCopyBus courseCopyBus;
+
     @Autowired private ApplicationContext ctx;
 
     @GetMapping("/index")
@@ -86,6 +93,9 @@ public class CourseController {
         List<Integer> courseIds = result.getData().stream().map(Course::getId).toList();
         data.put("course_category_ids", courseService.getCategoryIdsGroup(courseIds));
         data.put("course_dep_ids", courseService.getDepIdsGroup(courseIds));
+        data.put(
+                "course_learn_stats",
+                courseLearnStatsCache.chunk(courseIds)); // 学习人数/学完人数/平均进度/学习时长
         data.put("categories", categoryService.id2name());
         data.put("departments", departmentService.id2name());
 
@@ -239,4 +249,16 @@ public class CourseController {
         ctx.publishEvent(new CourseDestroyEvent(this, BCtx.getId(), id));
         return JsonResponse.success();
     }
+
+    @BackendPermissionMiddleware(slug = BPermissionConstant.COURSE)
+    @PostMapping("/{id}/copy")
+    public JsonResponse copy(
+            @PathVariable(name = "id") Integer id, @RequestBody @Validated CourseCopyRequest req)
+            throws NotFoundException {
+        Course course = courseService.findOrFail(id);
+        Course newCourse = courseCopyBus.copy(course, req.getTitle());
+        HashMap<String, Object> data = new HashMap<>();
+        data.put("course", newCourse);
+        return JsonResponse.data(data);
+    }
 }
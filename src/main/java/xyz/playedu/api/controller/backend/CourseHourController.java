@@ -24,6 +24,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import xyz.playedu.api.BCtx;
+import xyz.playedu.api.caches.CourseHourPlaybackHistogram;
 import xyz.playedu.api.constant.BPermissionConstant;
 import xyz.playedu.api.constant.BackendConstant;
 import xyz.playedu.api.domain.CourseChapter;
@@ -56,6 +57,8 @@ public class CourseHourController {
 
     @Autowired private CourseChapterService chapterService;
 
+    @Autowired private CourseHourPlaybackHistogram playbackHistogram;
+
     @Autowired private ApplicationContext ctx;
 
     @BackendPermissionMiddleware(slug = BPermissionConstant.COURSE)
@@ -185,6 +188,31 @@ public class CourseHourController {
         return JsonResponse.data(courseHour);
     }
 
+    @BackendPermissionMiddleware(slug = BPermissionConstant.COURSE)
+    @GetMapping("/{id}/playback-stats")
+    public JsonResponse playbackStats(
+            @PathVariable(name = "courseId") Integer courseId,
+            @PathVariable(name = "id") Integer id)
+            throws NotFoundException {
+        CourseHour courseHour = hourService.findOrFail(id, courseId);
+        long[] buckets = playbackHistogram.histogram(courseHour.getId());
+
+        // 留存率[%] = 播放到该分桶的学员数 / 开始播放的学员数
+        long learnCount = buckets[0];
+        List<Double> retention = new ArrayList<>();
+        for (long count : buckets) {
+            retention.add(learnCount == 0 ? 0 : Math.round(count * 10000.0 / learnCount) / 100.0);
+        }
+
+        HashMap<String, Object> data = new HashMap<>();
+        data.put("duration", courseHour.getDuration());
+        data.put("bucket_count", CourseHourPlaybackHistogram.BUCKETS);
+        data.put("learn_count", learnCount);
+        data.put("buckets", buckets);
+        data.put("retention", retention);
+        return JsonResponse.data(data);
+    }
+
     @BackendPermissionMiddleware(slug = BPermissionConstant.COURSE)
     @PutMapping("/{id}")
     public JsonResponse update(
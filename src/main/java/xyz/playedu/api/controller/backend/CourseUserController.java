@@ -15,30 +15,38 @@
  */
 package xyz.playedu.api.controller.backend;
 
+import jakarta.servlet.http.HttpServletResponse;
+
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.collections4.MapUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import xyz.playedu.api.bus.CourseUserBus;
+import xyz.playedu.api.bus.UserBus;
 import xyz.playedu.api.constant.BPermissionConstant;
+import xyz.playedu.api.domain.Course;
 import xyz.playedu.api.domain.User;
 import xyz.playedu.api.domain.UserCourseRecord;
-import xyz.playedu.api.event.UserCourseRecordDestroyEvent;
 import xyz.playedu.api.middleware.BackendPermissionMiddleware;
 import xyz.playedu.api.request.backend.CourseUserDestroyRequest;
 import xyz.playedu.api.service.*;
 import xyz.playedu.api.types.JsonResponse;
 import xyz.playedu.api.types.mapper.UserCourseHourRecordUserFirstCreatedAtMapper;
+import xyz.playedu.api.types.paginate.CursorPaginationResult;
 import xyz.playedu.api.types.paginate.PaginationResult;
 import xyz.playedu.api.types.paginate.UserPaginateFilter;
+import xyz.playedu.api.util.CsvUtil;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -61,7 +69,11 @@ public class CourseUserController {
 
     @Autowired private DepartmentService departmentService;
 
-    @Autowired private ApplicationContext ctx;
+    @Autowired private CourseUserBus courseUserBus;
+
+    @Autowired private UserBus userBus;
+
+    private static final int EXPORT_BATCH_SIZE = 500;
 
     @BackendPermissionMiddleware(slug = BPermissionConstant.COURSE_USER)
     @GetMapping("/index")
@@ -94,7 +106,8 @@ public class CourseUserController {
                         }
                     });
         } else { // 默认读取课程关联的全部部门
-            List<Integer> depIds = courseService.getDepIdsByCourseId(courseId);
+            List<Integer> depIds =
+                    userBus.learnerDepIds(courseService.getDepIdsByCourseId(courseId));
             if (depIds != null && depIds.size() > 0) {
                 filter.setDepIds(depIds);
             }
@@ -138,6 +151,108 @@ public class CourseUserController {
         return JsonResponse.data(data);
     }
 
+    /**
+     * 导出课程学员学习进度CSV
+     *
+     * <p>按学员id游标分批读取,每批关联学习记录后直接写入响应流,内存占用与学员数量无关
+     */
+    @BackendPermissionMiddleware(slug = BPermissionConstant.COURSE_USER)
+    @GetMapping("/export")
+    @SneakyThrows
+    public JsonResponse export(
+            @PathVariable(name = "courseId") Integer courseId,
+            @RequestParam HashMap<String, Object> params,
+            HttpServletResponse response) {
+        Course course = courseService.findOrFail(courseId);
+        Integer depId = MapUtils.getInteger(params, "dep_id");
+
+        UserPaginateFilter filter = new UserPaginateFilter();
+        filter.setName(MapUtils.getString(params, "name"));
+        filter.setEmail(MapUtils.getString(params, "email"));
+        filter.setIdCard(MapUtils.getString(params, "id_card"));
+        filter.setSortField("id");
+        filter.setSortAlgo("asc");
+        if (depId != null && depId > 0) {
+            filter.setDepIds(List.of(depId));
+        } else {
+            List<Integer> depIds =
+                    userBus.learnerDepIds(courseService.getDepIdsByCourseId(courseId));
+            if (depIds != null && depIds.size() > 0) {
+                filter.setDepIds(depIds);
+            }
+        }
+
+        response.setContentType("text/csv;charset=UTF-8");
+        response.setHeader(
+                "Content-Disposition",
+                String.format("attachment; filename=\"course-%d-users.csv\"", course.getId()));
+
+        Map<Integer, String> departments = departmentService.id2name();
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+        Writer writer =
+                new BufferedWriter(
+                        new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        writer.write(CsvUtil.BOM);
+        CsvUtil.writeRow(
+                writer, "学员ID", "姓名", "邮箱", "身份证号", "部门", "课时数", "已学完课时数", "进度(%)", "是否学完",
+                "开始学习时间", "学完时间");
+
+        String cursor = null;
+        do {
+            CursorPaginationResult<User> result =
+                    userService.cursorPaginate(cursor, EXPORT_BATCH_SIZE, filter, false);
+            cursor = result.getNextCursor();
+            if (result.getData().isEmpty()) {
+                break;
+            }
+
+            List<Integer> userIds = result.getData().stream().map(User::getId).toList();
+            Map<Integer, UserCourseRecord> records =
+                    userCourseRecordService.chunk(userIds, List.of(courseId)).stream()
+                            .collect(Collectors.toMap(UserCourseRecord::getUserId, e -> e));
+            Map<Integer, Date> firstAt =
+                    userCourseHourRecordService
+                            .getUserCourseHourUserFirstCreatedAt(courseId, userIds)
+                            .stream()
+                            .collect(
+                                    Collectors.toMap(
+                                            UserCourseHourRecordUserFirstCreatedAtMapper::getUserId,
+                                            UserCourseHourRecordUserFirstCreatedAtMapper
+                                                    ::getCreatedAt));
+            Map<Integer, List<Integer>> userDepIds = userService.getDepIdsGroup(userIds);
+
+            for (User user : result.getData()) {
+                UserCourseRecord record = records.get(user.getId());
+                Date startedAt = firstAt.get(user.getId());
+                String depNames =
+                        userDepIds.getOrDefault(user.getId(), new ArrayList<>()).stream()
+                                .map(id -> departments.getOrDefault(id, ""))
+                                .collect(Collectors.joining("/"));
+                CsvUtil.writeRow(
+                        writer,
+                        user.getId(),
+                        user.getName(),
+                        user.getEmail(),
+                        user.getIdCard(),
+                        depNames,
+                        record == null ? course.getClassHour() : record.getHourCount(),
+                        record == null ? 0 : record.getFinishedCount(),
+                        record == null ? 0 : record.getProgress() / 100.0,
+                        record != null && record.getIsFinished() == 1 ? "是" : "否",
+                        startedAt == null ? "" : dateFormat.format(startedAt),
+                        record == null || record.getFinishedAt() == null
+                                ? ""
+                                : dateFormat.format(record.getFinishedAt()));
+            }
+            writer.flush();
+        } while (cursor != null);
+        writer.flush();
+
+        // 响应体已写入
+        return null;
+    }
+
     @BackendPermissionMiddleware(slug = BPermissionConstant.COURSE_USER_DESTROY)
     @PostMapping("/destroy")
     public JsonResponse destroy(
@@ -146,18 +261,10 @@ public class CourseUserController {
         if (req.getIds().size() == 0) {
             return JsonResponse.error("请选择需要删除的数据");
         }
-        List<UserCourseRecord> records =
-                userCourseRecordService.chunks(
-                        req.getIds(),
-                        new ArrayList<>() {
-                            {
-                                add("user_id");
-                                add("id");
-                            }
-                        });
-        for (UserCourseRecord record : records) {
-            userCourseRecordService.removeById(record);
-            ctx.publishEvent(new UserCourseRecordDestroyEvent(this, record.getUserId(), courseId));
+        if (req.getIds().size() > CourseUserBus.ASYNC_THRESHOLD) {
+            courseUserBus.destroyAsync(courseId, new ArrayList<>(req.getIds()));
+        } else {
+            courseUserBus.destroy(courseId, req.getIds());
         }
         return JsonResponse.success();
     }
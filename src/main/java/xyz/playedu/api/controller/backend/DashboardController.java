@@ -15,11 +15,17 @@
  */
 package xyz.playedu.api.controller.backend;
 
+import cn.hutool.core.date.DateUtil;
+
+import org.apache.commons.collections4.MapUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import xyz.playedu.api.caches.UserActiveCache;
+import xyz.playedu.api.caches.UserLearnRankCache;
 import xyz.playedu.api.constant.BackendConstant;
 import xyz.playedu.api.constant.SystemConstant;
 import xyz.playedu.api.domain.User;
@@ -27,10 +33,7 @@ import xyz.playedu.api.domain.UserLearnDurationStats;
 import xyz.playedu.api.service.*;
 import xyz.playedu.api.types.JsonResponse;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -56,6 +59,10 @@ public class DashboardController {
 
     @Autowired private UserLearnDurationStatsService userLearnDurationStatsService;
 
+    @Autowired private UserLearnRankCache userLearnRankCache;
+
+    @Autowired private UserActiveCache userActiveCache;
+
     @GetMapping("/index")
     public JsonResponse index() {
         HashMap<String, Object> data = new HashMap<>();
@@ -76,8 +83,19 @@ public class DashboardController {
         data.put(
                 "resource_image_total", resourceService.total(BackendConstant.RESOURCE_TYPE_IMAGE));
 
-        data.put("user_learn_today", userLearnDurationStatsService.todayTotal());
-        data.put("user_learn_yesterday", userLearnDurationStatsService.yesterdayTotal());
+        // 今日/昨日学习学员数,活跃数据上线之前的日期回退到数据库统计
+        Date today = new Date();
+        Date yesterday = DateUtil.offsetDay(today, -1);
+        data.put(
+                "user_learn_today",
+                userActiveCache.has(today)
+                        ? userActiveCache.count(UserActiveCache.PERIOD_DAY, 0, today)
+                        : userLearnDurationStatsService.todayTotal());
+        data.put(
+                "user_learn_yesterday",
+                userActiveCache.has(yesterday)
+                        ? userActiveCache.count(UserActiveCache.PERIOD_DAY, 0, yesterday)
+                        : userLearnDurationStatsService.yesterdayTotal());
 
         List<UserLearnDurationStats> userLearnTop10 = userLearnDurationStatsService.top10();
         Map<Integer, User> top10Users =
@@ -101,4 +119,71 @@ public class DashboardController {
 
         return JsonResponse.data(data);
     }
+
+    @GetMapping("/active-users")
+    public JsonResponse activeUsers(@RequestParam HashMap<String, Object> params) {
+        Integer depId = MapUtils.getInteger(params, "dep_id", 0);
+        Integer days = MapUtils.getInteger(params, "days", 30);
+        if (days <= 0 || days > 93) {
+            days = 30;
+        }
+
+        Date today = new Date();
+        HashMap<String, Object> data = new HashMap<>();
+        data.put("dau", userActiveCache.count(UserActiveCache.PERIOD_DAY, depId, today));
+        data.put("wau", userActiveCache.count(UserActiveCache.PERIOD_WEEK, depId, today));
+        data.put("mau", userActiveCache.count(UserActiveCache.PERIOD_MONTH, depId, today));
+        data.put("days", userActiveCache.days(depId, days));
+
+        return JsonResponse.data(data);
+    }
+
+    @GetMapping("/learn-rank")
+    public JsonResponse learnRank(@RequestParam HashMap<String, Object> params) {
+        String period = MapUtils.getString(params, "period", UserLearnRankCache.PERIOD_DAY);
+        Integer depId = MapUtils.getInteger(params, "dep_id", 0);
+        Integer size = MapUtils.getInteger(params, "size", 10);
+        if (!userLearnRankCache.isPeriod(period)) {
+            return JsonResponse.error("period参数错误");
+        }
+        if (size <= 0 || size > 100) {
+            size = 10;
+        }
+
+        LinkedHashMap<Integer, Long> top = userLearnRankCache.top(period, depId, size);
+        Map<Integer, User> users =
+                userService
+                        .chunks(
+                                new ArrayList<>(top.keySet()),
+                                new ArrayList<>() {
+                                    {
+                                        add("id");
+                                        add("name");
+                                        add("avatar");
+                                        add("email");
+                                    }
+                                })
+                        .stream()
+                        .collect(Collectors.toMap(User::getId, e -> e));
+
+        List<HashMap<String, Object>> rank = new ArrayList<>();
+        top.forEach(
+                (userId, duration) -> {
+                    // 已删除的学员
+                    if (!users.containsKey(userId)) {
+                        return;
+                    }
+                    HashMap<String, Object> item = new HashMap<>();
+                    item.put("user_id", userId);
+                    item.put("duration", duration);
+                    rank.add(item);
+                });
+
+        HashMap<String, Object> data = new HashMap<>();
+        data.put("rank", rank);
+        data.put("users", users);
+        data.put("total", userLearnRankCache.total(period, depId)); // 上榜学员数
+
+        return JsonResponse.data(data);
+    }
 }
@@ -24,6 +24,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import xyz.playedu.api.BCtx;
+import xyz.playedu.api.bus.UserBus;
 import xyz.playedu.api.constant.BPermissionConstant;
 import xyz.playedu.api.domain.Course;
 import xyz.playedu.api.domain.Department;
@@ -57,13 +58,19 @@ public class DepartmentController {
 
     @Autowired private UserCourseRecordService userCourseRecordService;
 
+    @Autowired private UserBus userBus;
+
     @Autowired private ApplicationContext ctx;
 
     @GetMapping("/index")
     public JsonResponse index() {
         HashMap<String, Object> data = new HashMap<>();
         data.put("departments", departmentService.groupByParent());
-        data.put("dep_user_count", departmentService.getDepartmentsUserCount());
+        Map<Integer, Integer> depUserCount = departmentService.getDepartmentsUserCount();
+        data.put("dep_user_count", depUserCount);
+        data.put(
+                "dep_subtree_user_count",
+                departmentService.getDepartmentsSubtreeUserCount(depUserCount));
         data.put("user_total", userService.total());
         return JsonResponse.data(data);
     }
@@ -221,20 +228,22 @@ public class DepartmentController {
                 // 部门关联线上课
                 courses =
                         courseService.getDepCoursesAndShow(
-                                new ArrayList<>() {
-                                    {
-                                        add(id);
-                                    }
-                                });
+                                userBus.courseDepIds(
+                                        new ArrayList<>() {
+                                            {
+                                                add(id);
+                                            }
+                                        }));
             } else {
                 // 部门关联线上课
                 courses =
                         courseService.getDepCoursesAndShow(
-                                new ArrayList<>() {
-                                    {
-                                        add(id);
-                                    }
-                                });
+                                userBus.courseDepIds(
+                                        new ArrayList<>() {
+                                            {
+                                                add(id);
+                                            }
+                                        }));
                 List<Course> openCourses = courseService.getOpenCoursesAndShow(10000);
                 ;
                 if (openCourses != null) {
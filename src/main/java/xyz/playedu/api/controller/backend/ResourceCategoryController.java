@@ -60,6 +60,8 @@ public class ResourceCategoryController {
     public JsonResponse index() {
         HashMap<String, Object> data = new HashMap<>();
         data.put("categories", categoryService.groupByParent());
+        data.put("resource_count", categoryService.getResourceCount());
+        data.put("course_count", categoryService.getCourseCount());
         return JsonResponse.data(data);
     }
 
@@ -19,7 +19,6 @@ import lombok.SneakyThrows;
 
 import org.apache.commons.collections4.MapUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
@@ -38,6 +37,7 @@ import xyz.playedu.api.service.MinioService;
 import xyz.playedu.api.service.ResourceService;
 import xyz.playedu.api.service.ResourceVideoService;
 import xyz.playedu.api.types.JsonResponse;
+import xyz.playedu.api.types.paginate.CursorPaginationResult;
 import xyz.playedu.api.types.paginate.PaginationResult;
 import xyz.playedu.api.types.paginate.ResourcePaginateFilter;
 
@@ -58,6 +58,9 @@ public class ResourceController {
 
     @Autowired private BackendBus backendBus;
 
+    // 超过该数量的文件转为后台删除
+    private static final int ASYNC_REMOVE_THRESHOLD = 100;
+
     @GetMapping("/index")
     public JsonResponse index(@RequestParam HashMap<String, Object> params) {
         Integer page = MapUtils.getInteger(params, "page", 1);
@@ -67,6 +70,8 @@ public class ResourceController {
         String name = MapUtils.getString(params, "name");
         String type = MapUtils.getString(params, "type");
         String categoryIds = MapUtils.getString(params, "category_ids");
+        String cursor = MapUtils.getString(params, "cursor");
+        boolean withTotal = MapUtils.getInteger(params, "with_total", 0) == 1;
 
         if (type == null || type.trim().length() == 0) {
             return JsonResponse.error("请选择资源类型");
@@ -83,15 +88,23 @@ public class ResourceController {
             filter.setAdminId(BCtx.getId());
         }
 
-        PaginationResult<Resource> result = resourceService.paginate(page, size, filter);
-
         HashMap<String, Object> data = new HashMap<>();
-        data.put("result", result);
+        List<Resource> resources;
+        if (cursor != null) {
+            CursorPaginationResult<Resource> result =
+                    resourceService.cursorPaginate(cursor, size, filter, withTotal);
+            resources = result.getData();
+            data.put("result", result);
+        } else {
+            PaginationResult<Resource> result = resourceService.paginate(page, size, filter);
+            resources = result.getData();
+            data.put("result", result);
+        }
 
         if (type.equals(BackendConstant.RESOURCE_TYPE_VIDEO)) {
             List<ResourceVideo> resourceVideos =
                     resourceVideoService.chunksByRids(
-                            result.getData().stream().map(Resource::getId).toList());
+                            resources.stream().map(Resource::getId).toList());
             Map<Integer, ResourceVideo> resourceVideosExtra =
                     resourceVideos.stream()
                             .collect(Collectors.toMap(ResourceVideo::getRid, e -> e));
@@ -100,10 +113,10 @@ public class ResourceController {
 
         // 操作人
         data.put("admin_users", new HashMap<>());
-        if (result.getData().size() > 0) {
+        if (resources.size() > 0) {
             Map<Integer, String> adminUsers =
                     adminUserService
-                            .chunks(result.getData().stream().map(Resource::getAdminId).toList())
+                            .chunks(resources.stream().map(Resource::getAdminId).toList())
                             .stream()
                             .collect(Collectors.toMap(AdminUser::getId, AdminUser::getName));
             data.put("admin_users", adminUsers);
@@ -113,7 +126,6 @@ public class ResourceController {
     }
 
     @DeleteMapping("/{id}")
-    @Transactional
     @SneakyThrows
     public JsonResponse destroy(@PathVariable(name = "id") Integer id) throws NotFoundException {
         Resource resource = resourceService.findOrFail(id);
@@ -124,14 +136,8 @@ public class ResourceController {
             }
         }
 
-        // 删除文件
-        minioService.removeByPath(resource.getPath());
-        // 如果是视频资源文件则删除对应的时长关联记录
-        if (BackendConstant.RESOURCE_TYPE_VIDEO.equals(resource.getType())) {
-            resourceVideoService.removeByRid(resource.getId());
-        }
-        // 删除资源记录
-        resourceService.removeById(resource.getId());
+        // 删除资源记录及子资源(如: 视频封面截图),再删除文件
+        minioService.removeByPaths(resourceService.destroy(List.of(resource)));
         return JsonResponse.success();
     }
 
@@ -147,22 +153,21 @@ public class ResourceController {
             return JsonResponse.success();
         }
 
-        for (Resource resourceItem : resources) {
-            // 权限校验
-            if (!backendBus.isSuperAdmin()) {
+        // 权限校验
+        if (!backendBus.isSuperAdmin()) {
+            for (Resource resourceItem : resources) {
                 if (!resourceItem.getAdminId().equals(BCtx.getId())) {
                     throw new ServiceException("无权限");
                 }
             }
+        }
 
-            // 删除资源源文件
-            minioService.removeByPath(resourceItem.getPath());
-            // 如果是视频资源的话还需要删除视频的关联资源，如: 封面截图
-            if (BackendConstant.RESOURCE_TYPE_VIDEO.equals(resourceItem.getType())) {
-                resourceVideoService.removeByRid(resourceItem.getId());
-            }
-            // 删除数据库的记录
-            resourceService.removeById(resourceItem.getId());
+        // 数据库记录集合删除,存储文件使用批量删除接口,文件较多时后台执行
+        List<String> paths = resourceService.destroy(resources);
+        if (paths.size() > ASYNC_REMOVE_THRESHOLD) {
+            minioService.removeByPathsAsync(paths);
+        } else {
+            minioService.removeByPaths(paths);
         }
         return JsonResponse.success();
     }
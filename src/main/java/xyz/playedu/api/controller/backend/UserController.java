@@ -27,28 +27,32 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import xyz.playedu.api.BCtx;
+import xyz.playedu.api.bus.UserBus;
+import xyz.playedu.api.bus.UserImportBus;
+import xyz.playedu.api.caches.PaginateCountCache;
+import xyz.playedu.api.caches.UserImportJobCache;
 import xyz.playedu.api.constant.BPermissionConstant;
 import xyz.playedu.api.constant.CConfig;
-import xyz.playedu.api.constant.SystemConstant;
 import xyz.playedu.api.domain.*;
 import xyz.playedu.api.event.UserCourseHourRecordDestroyEvent;
 import xyz.playedu.api.event.UserCourseRecordDestroyEvent;
 import xyz.playedu.api.event.UserDestroyEvent;
 import xyz.playedu.api.exception.NotFoundException;
+import xyz.playedu.api.exception.ServiceException;
 import xyz.playedu.api.middleware.BackendPermissionMiddleware;
 import xyz.playedu.api.request.backend.UserImportRequest;
 import xyz.playedu.api.request.backend.UserRequest;
 import xyz.playedu.api.service.*;
-import xyz.playedu.api.service.internal.UserDepartmentService;
 import xyz.playedu.api.types.JsonResponse;
 import xyz.playedu.api.types.mapper.UserCourseHourRecordCourseCountMapper;
+import xyz.playedu.api.types.paginate.CursorPaginationResult;
 import xyz.playedu.api.types.paginate.PaginationResult;
 import xyz.playedu.api.types.paginate.UserCourseHourRecordPaginateFilter;
 import xyz.playedu.api.types.paginate.UserCourseRecordPaginateFilter;
 import xyz.playedu.api.types.paginate.UserPaginateFilter;
-import xyz.playedu.api.util.HelperUtil;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -65,8 +69,6 @@ public class UserController {
 
     @Autowired private UserService userService;
 
-    @Autowired private UserDepartmentService userDepartmentService;
-
     @Autowired private DepartmentService departmentService;
 
     @Autowired private ApplicationContext context;
@@ -83,6 +85,14 @@ public class UserController {
 
     @Autowired private ApplicationContext ctx;
 
+    @Autowired private PaginateCountCache paginateCountCache;
+
+    @Autowired private UserBus userBus;
+
+    @Autowired private UserImportBus userImportBus;
+
+    @Autowired private UserImportJobCache userImportJobCache;
+
     @BackendPermissionMiddleware(slug = BPermissionConstant.USER_INDEX)
     @GetMapping("/index")
     public JsonResponse index(@RequestParam HashMap<String, Object> params) {
@@ -90,6 +100,8 @@ public class UserController {
         Integer size = MapUtils.getInteger(params, "size", 10);
         String sortField = MapUtils.getString(params, "sort_field");
         String sortAlgo = MapUtils.getString(params, "sort_algo");
+        String cursor = MapUtils.getString(params, "cursor");
+        boolean withTotal = MapUtils.getInteger(params, "with_total", 0) == 1;
 
         String name = MapUtils.getString(params, "name");
         String email = MapUtils.getString(params, "email");
@@ -130,16 +142,27 @@ public class UserController {
             filter.setCreatedAt(createdAt.split(","));
         }
 
-        PaginationResult<User> result = userService.paginate(page, size, filter);
-
         HashMap<String, Object> data = new HashMap<>();
-        data.put("data", result.getData());
-        data.put("total", result.getTotal());
+        List<User> users;
+        if (cursor != null) {
+            // 游标分页[深分页不再扫描前N行,总数按需统计]
+            CursorPaginationResult<User> result =
+                    userService.cursorPaginate(cursor, size, filter, withTotal);
+            users = result.getData();
+            data.put("data", users);
+            data.put("total", result.getTotal());
+            data.put("next_cursor", result.getNextCursor());
+        } else {
+            PaginationResult<User> result = userService.paginate(page, size, filter);
+            users = result.getData();
+            data.put("data", users);
+            data.put("total", result.getTotal());
+            data.put("pure_total", userService.total());
+        }
         data.put(
                 "user_dep_ids",
-                userService.getDepIdsGroup(result.getData().stream().map(User::getId).toList()));
+                userService.getDepIdsGroup(users.stream().map(User::getId).toList()));
         data.put("departments", departmentService.id2name());
-        data.put("pure_total", userService.total());
 
         return JsonResponse.data(data);
     }
@@ -219,7 +242,6 @@ public class UserController {
     }
 
     @PostMapping("/store-batch")
-    @Transactional
     public JsonResponse batchStore(@RequestBody @Validated UserImportRequest req) {
         List<UserImportRequest.UserItem> users = req.getUsers();
         if (users.size() == 0) {
@@ -229,156 +251,72 @@ public class UserController {
             return JsonResponse.error("一次最多导入1000条数据");
         }
 
-        // 导入表格的有效数据起始行-用于错误提醒
-        Integer startLine = req.getStartLine();
-
-        // 默认的学员头像
-        String defaultAvatar = BCtx.getConfig().get(CConfig.MEMBER_DEFAULT_AVATAR);
-
-        List<String[]> errorLines = new ArrayList<>();
-        errorLines.add(new String[] {"错误行", "错误信息"}); // 错误表-表头
-
-        // 读取存在的部门
-        List<Department> departments = departmentService.all();
-        Map<Integer, String> depId2Name =
-                departments.stream()
-                        .collect(Collectors.toMap(Department::getId, Department::getName));
-        HashMap<String, Integer> depChainNameMap = new HashMap<>();
-        for (Department tmpDepItem : departments) {
-            // 一级部门
-            if (tmpDepItem.getParentChain() == null || tmpDepItem.getParentChain().length() == 0) {
-                depChainNameMap.put(tmpDepItem.getName(), tmpDepItem.getId());
-                continue;
-            }
-
-            // 多级部门
-            String[] tmpChainIds = tmpDepItem.getParentChain().split(",");
-            List<String> tmpChainNames = new ArrayList<>();
-            for (int i = 0; i < tmpChainIds.length; i++) {
-                String tmpName = depId2Name.get(Integer.valueOf(tmpChainIds[i]));
-                if (tmpName == null) {
-                    continue;
-                }
-                tmpChainNames.add(tmpName);
-            }
-            tmpChainNames.add(tmpDepItem.getName());
-            depChainNameMap.put(String.join("-", tmpChainNames), tmpDepItem.getId());
+        UserImportBus.Result result =
+                userImportBus.validate(
+                        users,
+                        req.getStartLine(),
+                        BCtx.getConfig().get(CConfig.MEMBER_DEFAULT_AVATAR),
+                        null);
+        if (result.getErrors().size() > 0) {
+            List<String[]> errorLines = new ArrayList<>();
+            errorLines.add(new String[] {"错误行", "错误信息"}); // 错误表-表头
+            errorLines.addAll(result.getErrors());
+            return JsonResponse.error("导入数据有误", errorLines);
         }
 
-        // 邮箱输入重复检测 || 部门存在检测
-        HashMap<String, Integer> emailRepeat = new HashMap<>();
-        HashMap<String, Integer[]> depMap = new HashMap<>();
-        List<String> emails = new ArrayList<>();
-        List<User> insertUsers = new ArrayList<>();
-        int i = -1;
-
-        for (UserImportRequest.UserItem userItem : users) {
-            i++; // 索引值
+        userImportBus.store(result.getUsers(), result.getDepIds(), null);
 
-            if (userItem.getEmail() == null || userItem.getEmail().trim().length() == 0) {
-                errorLines.add(new String[] {"第" + (i + startLine) + "行", "未输入邮箱账号"});
-            } else {
-                // 邮箱重复判断
-                Integer repeatLine = emailRepeat.get(userItem.getEmail());
-                if (repeatLine != null) {
-                    errorLines.add(
-                            new String[] {
-                                "第" + (i + startLine) + "行", "与第" + repeatLine + "行邮箱重复"
-                            });
-                } else {
-                    emailRepeat.put(userItem.getEmail(), i + startLine);
-                }
-                emails.add(userItem.getEmail());
-            }
+        return JsonResponse.success();
+    }
 
-            // 部门数据检测
-            if (userItem.getDeps() == null || userItem.getDeps().trim().length() == 0) {
-                errorLines.add(new String[] {"第" + (i + startLine) + "行", "未选择部门"});
-            } else {
-                String[] tmpDepList = userItem.getDeps().trim().split("\\|");
-                Integer[] tmpDepIds = new Integer[tmpDepList.length];
-                for (int j = 0; j < tmpDepList.length; j++) {
-                    // 获取部门id
-                    Integer tmpDepId = depChainNameMap.get(tmpDepList[j]);
-                    // 判断部门id是否存在
-                    if (tmpDepId == null || tmpDepId == 0) {
-                        errorLines.add(
-                                new String[] {
-                                    "第" + (i + startLine) + "行", "部门『" + tmpDepList[j] + "』不存在"
-                                });
-                        continue;
-                    }
-                    tmpDepIds[j] = tmpDepId;
-                }
-                depMap.put(userItem.getEmail(), tmpDepIds);
-            }
+    @BackendPermissionMiddleware(slug = BPermissionConstant.USER_STORE)
+    @PostMapping("/import-jobs")
+    public JsonResponse importJobStore(@RequestBody @Validated UserImportRequest req) {
+        List<UserImportRequest.UserItem> users = req.getUsers();
+        if (users.size() == 0) {
+            return JsonResponse.error("数据为空");
+        }
 
-            // 姓名为空检测
-            String tmpName = userItem.getName();
-            if (tmpName == null || tmpName.trim().length() == 0) {
-                errorLines.add(new String[] {"第" + (i + startLine) + "行", "昵称为空"});
-            }
+        String jobId = userImportJobCache.create(BCtx.getId(), users.size());
+        userImportBus.run(
+                jobId,
+                users,
+                req.getStartLine(),
+                BCtx.getConfig().get(CConfig.MEMBER_DEFAULT_AVATAR));
 
-            // 密码为空检测
-            String tmpPassword = userItem.getPassword();
-            if (tmpPassword == null || tmpPassword.trim().length() == 0) {
-                errorLines.add(new String[] {"第" + (i + startLine) + "行", "密码为空"});
-            }
+        HashMap<String, Object> data = new HashMap<>();
+        data.put("job_id", jobId);
+        return JsonResponse.data(data);
+    }
 
-            // 待插入数据
-            User tmpInsertUser = new User();
-            String tmpSalt = HelperUtil.randomString(6);
-            tmpInsertUser.setEmail(userItem.getEmail());
-            tmpInsertUser.setPassword(HelperUtil.MD5(tmpPassword + tmpSalt));
-            tmpInsertUser.setSalt(tmpSalt);
-            tmpInsertUser.setName(tmpName);
-            tmpInsertUser.setAvatar(defaultAvatar);
-            tmpInsertUser.setIdCard(userItem.getIdCard());
-            tmpInsertUser.setCreateIp(SystemConstant.INTERNAL_IP);
-            tmpInsertUser.setCreateCity(SystemConstant.INTERNAL_IP_AREA);
-            tmpInsertUser.setCreatedAt(new Date());
-            tmpInsertUser.setUpdatedAt(new Date());
-
-            insertUsers.add(tmpInsertUser);
+    @BackendPermissionMiddleware(slug = BPermissionConstant.USER_STORE)
+    @PostMapping("/import-jobs/upload")
+    public JsonResponse importJobUpload(MultipartFile file) throws ServiceException {
+        if (file == null || file.isEmpty()) {
+            return JsonResponse.error("请上传文件");
         }
-
-        if (errorLines.size() > 1) {
-            return JsonResponse.error("导入数据有误", errorLines);
+        List<UserImportRequest.UserItem> users = userImportBus.parse(file);
+        if (users.size() == 0) {
+            return JsonResponse.error("数据为空");
         }
 
-        // 邮箱是否注册检测
-        List<String> existsEmails = userService.existsEmailsByEmails(emails);
-        if (existsEmails.size() > 0) {
-            for (String tmpEmail : existsEmails) {
-                errorLines.add(new String[] {"第" + emailRepeat.get(tmpEmail) + "行", "邮箱已注册"});
-            }
-        }
-        if (errorLines.size() > 1) {
-            return JsonResponse.error("导入数据有误", errorLines);
-        }
+        String jobId = userImportJobCache.create(BCtx.getId(), users.size());
+        // 表头占第一行,数据从第二行开始
+        userImportBus.run(jobId, users, 2, BCtx.getConfig().get(CConfig.MEMBER_DEFAULT_AVATAR));
 
-        userService.saveBatch(insertUsers);
+        HashMap<String, Object> data = new HashMap<>();
+        data.put("job_id", jobId);
+        return JsonResponse.data(data);
+    }
 
-        // 部门关联
-        List<UserDepartment> insertUserDepartments = new ArrayList<>();
-        for (User tmpUser : insertUsers) {
-            Integer[] tmpDepIds = depMap.get(tmpUser.getEmail());
-            if (tmpDepIds == null) {
-                continue;
-            }
-            for (Integer tmpDepId : tmpDepIds) {
-                insertUserDepartments.add(
-                        new UserDepartment() {
-                            {
-                                setUserId(tmpUser.getId());
-                                setDepId(tmpDepId);
-                            }
-                        });
-            }
+    @BackendPermissionMiddleware(slug = BPermissionConstant.USER_STORE)
+    @GetMapping("/import-jobs/{jobId}")
+    public JsonResponse importJobShow(@PathVariable(name = "jobId") String jobId) {
+        Map<String, Object> job = userImportJobCache.get(jobId, BCtx.getId());
+        if (job == null) {
+            return JsonResponse.error("导入任务不存在或已过期", 404);
         }
-        userDepartmentService.saveBatch(insertUserDepartments);
-
-        return JsonResponse.success();
+        return JsonResponse.data(job);
     }
 
     @BackendPermissionMiddleware(slug = BPermissionConstant.USER_LEARN)
@@ -391,6 +329,8 @@ public class UserController {
         String sortField = MapUtils.getString(params, "sort_field");
         String sortAlgo = MapUtils.getString(params, "sort_algo");
         Integer isFinished = MapUtils.getInteger(params, "is_finished");
+        String cursor = MapUtils.getString(params, "cursor");
+        boolean withTotal = MapUtils.getInteger(params, "with_total", 0) == 1;
 
         UserCourseHourRecordPaginateFilter filter = new UserCourseHourRecordPaginateFilter();
         filter.setSortAlgo(sortAlgo);
@@ -398,19 +338,25 @@ public class UserController {
         filter.setUserId(id);
         filter.setIsFinished(isFinished);
 
-        PaginationResult<UserCourseHourRecord> result =
-                userCourseHourRecordService.paginate(page, size, filter);
-
         HashMap<String, Object> data = new HashMap<>();
-        data.put("data", result.getData());
-        data.put("total", result.getTotal());
+        List<UserCourseHourRecord> records;
+        if (cursor != null) {
+            CursorPaginationResult<UserCourseHourRecord> result =
+                    userCourseHourRecordService.cursorPaginate(cursor, size, filter, withTotal);
+            records = result.getData();
+            data.put("total", result.getTotal());
+            data.put("next_cursor", result.getNextCursor());
+        } else {
+            PaginationResult<UserCourseHourRecord> result =
+                    userCourseHourRecordService.paginate(page, size, filter);
+            records = result.getData();
+            data.put("total", result.getTotal());
+        }
+        data.put("data", records);
         data.put(
                 "hours",
                 courseHourService
-                        .chunk(
-                                result.getData().stream()
-                                        .map(UserCourseHourRecord::getHourId)
-                                        .toList())
+                        .chunk(records.stream().map(UserCourseHourRecord::getHourId).toList())
                         .stream()
                         .collect(Collectors.toMap(CourseHour::getId, e -> e)));
 
@@ -426,6 +372,8 @@ public class UserController {
         String sortField = MapUtils.getString(params, "sort_field");
         String sortAlgo = MapUtils.getString(params, "sort_algo");
         Integer isFinished = MapUtils.getInteger(params, "is_finished");
+        String cursor = MapUtils.getString(params, "cursor");
+        boolean withTotal = MapUtils.getInteger(params, "with_total", 0) == 1;
 
         UserCourseRecordPaginateFilter filter = new UserCourseRecordPaginateFilter();
         filter.setSortAlgo(sortAlgo);
@@ -433,19 +381,25 @@ public class UserController {
         filter.setUserId(id);
         filter.setIsFinished(isFinished);
 
-        PaginationResult<UserCourseRecord> result =
-                userCourseRecordService.paginate(page, size, filter);
-
         HashMap<String, Object> data = new HashMap<>();
-        data.put("data", result.getData());
-        data.put("total", result.getTotal());
+        List<UserCourseRecord> records;
+        if (cursor != null) {
+            CursorPaginationResult<UserCourseRecord> result =
+                    userCourseRecordService.cursorPaginate(cursor, size, filter, withTotal);
+            records = result.getData();
+            data.put("total", result.getTotal());
+            data.put("next_cursor", result.getNextCursor());
+        } else {
+            PaginationResult<UserCourseRecord> result =
+                    userCourseRecordService.paginate(page, size, filter);
+            records = result.getData();
+            data.put("total", result.getTotal());
+        }
+        data.put("data", records);
         data.put(
                 "courses",
                 courseService
-                        .chunks(
-                                result.getData().stream()
-                                        .map(UserCourseRecord::getCourseId)
-                                        .toList())
+                        .chunks(records.stream().map(UserCourseRecord::getCourseId).toList())
                         .stream()
                         .collect(Collectors.toMap(Course::getId, e -> e)));
 
@@ -458,26 +412,19 @@ public class UserController {
         // 读取学员关联的部门
         List<Integer> depIds = userService.getDepIdsByUserId(id);
         List<Department> departments = new ArrayList<>();
-        HashMap<Integer, List<Course>> depCourses = new HashMap<>();
+        Map<Integer, List<Course>> depCourses = new HashMap<>();
         List<Integer> courseIds = new ArrayList<>();
 
         if (depIds != null && depIds.size() > 0) {
             departments = departmentService.chunk(depIds);
-            depIds.forEach(
-                    (depId) -> {
-                        List<Course> tmpCourses =
-                                courseService.getDepCoursesAndShow(
-                                        new ArrayList<>() {
-                                            {
-                                                add(depId);
-                                            }
-                                        });
-                        depCourses.put(depId, tmpCourses);
-
-                        if (tmpCourses != null && tmpCourses.size() > 0) {
-                            courseIds.addAll(tmpCourses.stream().map(Course::getId).toList());
-                        }
-                    });
+            // 一次查询读取全部部门的课程
+            depCourses = userBus.depCoursesGroup(depIds);
+            depCourses
+                    .values()
+                    .forEach(
+                            tmpCourses ->
+                                    courseIds.addAll(
+                                            tmpCourses.stream().map(Course::getId).toList()));
         }
 
         // 未关联部门课程
@@ -22,15 +22,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
 import xyz.playedu.api.FCtx;
+import xyz.playedu.api.bus.UserBus;
+import xyz.playedu.api.caches.CourseCatalog;
+import xyz.playedu.api.caches.CourseSearchIndex;
 import xyz.playedu.api.domain.Course;
 import xyz.playedu.api.domain.CourseHour;
 import xyz.playedu.api.domain.UserCourseHourRecord;
+import xyz.playedu.api.domain.UserCourseRecord;
 import xyz.playedu.api.service.*;
 import xyz.playedu.api.types.JsonResponse;
 import xyz.playedu.api.types.paginate.CoursePaginateFiler;
 import xyz.playedu.api.types.paginate.PaginationResult;
+import xyz.playedu.api.util.HelperUtil;
 
-import java.util.HashMap;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -52,12 +57,35 @@ public class CourseController {
 
     @Autowired private UserCourseHourRecordService userCourseHourRecordService;
 
+    @Autowired private UserService userService;
+
+    @Autowired private UserBus userBus;
+
+    @Autowired private CourseSearchIndex courseSearchIndex;
+
+    @Autowired private CourseCatalog courseCatalog;
+
+    @Autowired private ResourceCategoryService resourceCategoryService;
+
     @GetMapping("/index")
     public JsonResponse index(@RequestParam HashMap<String, Object> params) {
         Integer page = MapUtils.getInteger(params, "page", 1);
         Integer size = MapUtils.getInteger(params, "size", 10);
         String categoryIds = MapUtils.getString(params, "category_ids");
 
+        List<Integer> categoryIdList = HelperUtil.parseIntegerList(categoryIds);
+        if (categoryIdList != null) {
+            // 按父分类筛选时包含全部子分类
+            categoryIdList = resourceCategoryService.getSubtreeIds(categoryIdList);
+        }
+
+        // 优先从进程内课程目录分页
+        PaginationResult<Course> catalogResult =
+                courseCatalog.paginate(page, size, null, categoryIdList);
+        if (catalogResult != null) {
+            return JsonResponse.data(catalogResult);
+        }
+
         CoursePaginateFiler filer = new CoursePaginateFiler();
         filer.setIsShow(1);
         filer.setCategoryIds(categoryIds);
@@ -67,6 +95,40 @@ public class CourseController {
         return JsonResponse.data(result);
     }
 
+    @GetMapping("/search")
+    public JsonResponse search(@RequestParam HashMap<String, Object> params) {
+        String keyword = MapUtils.getString(params, "keyword");
+        int size = Math.min(MapUtils.getInteger(params, "size", 20), 100);
+        if (keyword == null || keyword.trim().length() == 0) {
+            return JsonResponse.error("请输入搜索关键字");
+        }
+
+        List<Integer> candidateIds = courseSearchIndex.search(keyword);
+        if (candidateIds == null) {
+            return JsonResponse.error("搜索服务初始化中,请稍后再试");
+        }
+        List<Integer> userDepIds =
+                userBus.courseDepIds(userService.getDepIdsByUserId(FCtx.getId()));
+        // 优先在进程内课程目录中筛选可见课程
+        List<Course> courses = courseCatalog.visibleCourses(candidateIds, userDepIds, size);
+        if (courses == null) {
+            courses = visibleCourses(candidateIds, userDepIds, size);
+        }
+
+        HashMap<String, Object> data = new HashMap<>();
+        data.put("courses", courses);
+        data.put(
+                "learn_course_records",
+                courses.isEmpty()
+                        ? new HashMap<>()
+                        : userCourseRecordService
+                                .chunk(FCtx.getId(), courses.stream().map(Course::getId).toList())
+                                .stream()
+                                .collect(Collectors.toMap(UserCourseRecord::getCourseId, e -> e)));
+
+        return JsonResponse.data(data);
+    }
+
     @GetMapping("/{id}")
     @SneakyThrows
     public JsonResponse detail(@PathVariable(name = "id") Integer id) {
@@ -87,4 +149,37 @@ public class CourseController {
 
         return JsonResponse.data(data);
     }
+
+    /** 课程目录未就绪时按候选id分块查库筛选,候选id已由搜索索引限制数量 */
+    private List<Course> visibleCourses(
+            List<Integer> candidateIds, List<Integer> userDepIds, int size) {
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < candidateIds.size() && courses.size() < size; i += 200) {
+            List<Integer> chunkIds =
+                    candidateIds.subList(i, Math.min(i + 200, candidateIds.size()));
+            Map<Integer, List<Integer>> courseDepIds = courseService.getDepIdsGroup(chunkIds);
+            Map<Integer, Course> chunkCourses =
+                    courseService.chunks(chunkIds).stream()
+                            .collect(Collectors.toMap(Course::getId, e -> e));
+            for (Integer courseId : chunkIds) {
+                Course course = chunkCourses.get(courseId);
+                if (course == null || course.getIsShow() != 1) {
+                    continue;
+                }
+                // 未关联部门的课程所有学员可见,否则需加入任一关联部门
+                List<Integer> depIds = courseDepIds == null ? null : courseDepIds.get(courseId);
+                if (depIds != null
+                        && (userDepIds == null
+                                || depIds.stream().noneMatch(userDepIds::contains))) {
+                    continue;
+                }
+                courses.add(course);
+                if (courses.size() >= size) {
+                    break;
+                }
+            }
+        }
+
+        return courses;
+    }
 }
@@ -19,6 +19,7 @@ import org.apache.commons.collections4.MapUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import xyz.playedu.api.caches.CourseCatalog;
 import xyz.playedu.api.domain.Course;
 import xyz.playedu.api.domain.Department;
 import xyz.playedu.api.exception.NotFoundException;
@@ -27,6 +28,7 @@ import xyz.playedu.api.service.DepartmentService;
 import xyz.playedu.api.types.JsonResponse;
 import xyz.playedu.api.types.paginate.CoursePaginateFiler;
 import xyz.playedu.api.types.paginate.PaginationResult;
+import xyz.playedu.api.util.HelperUtil;
 
 import java.util.HashMap;
 import java.util.stream.Collectors;
@@ -44,6 +46,8 @@ public class DepartmentController {
 
     @Autowired private CourseService courseService;
 
+    @Autowired private CourseCatalog courseCatalog;
+
     @GetMapping("/index")
     public JsonResponse index() {
         return JsonResponse.data(
@@ -68,7 +72,13 @@ public class DepartmentController {
             filer.setDepIds(department.getId() + "");
         }
 
-        PaginationResult<Course> result = courseService.paginate(page, size, filer);
+        // 优先从进程内课程目录分页
+        PaginationResult<Course> result =
+                courseCatalog.paginate(
+                        page, size, HelperUtil.parseIntegerList(filer.getDepIds()), null);
+        if (result == null) {
+            result = courseService.paginate(page, size, filer);
+        }
 
         HashMap<String, Object> data = new HashMap<>();
         data.put("data", result.getData());
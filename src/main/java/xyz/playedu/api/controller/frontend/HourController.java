@@ -25,6 +25,7 @@ import xyz.playedu.api.FCtx;
 import xyz.playedu.api.bus.UserBus;
 import xyz.playedu.api.caches.CourseCache;
 import xyz.playedu.api.caches.UserCanSeeCourseCache;
+import xyz.playedu.api.caches.UserLatestLearnCache;
 import xyz.playedu.api.domain.*;
 import xyz.playedu.api.request.frontend.CourseHourRecordRequest;
 import xyz.playedu.api.service.CourseHourService;
@@ -58,6 +59,8 @@ public class HourController {
 
     // ------- CACHE ----------
     @Autowired private UserCanSeeCourseCache userCanSeeCourseCache;
+
+    @Autowired private UserLatestLearnCache userLatestLearnCache;
     @Autowired private CourseCache courseCache;
 
     @Autowired private RedisDistributedLock redisDistributedLock;
@@ -126,6 +129,8 @@ public class HourController {
 
         userCourseHourRecordService.storeOrUpdate(
                 FCtx.getId(), course.getId(), hour.getId(), duration, hour.getDuration());
+        // 最近学习的线上课
+        userLatestLearnCache.put(FCtx.getId(), course.getId(), hour.getId());
 
         // 此处未考虑上面代码执行失败释放锁
         redisDistributedLock.releaseLock(lockKey);
@@ -24,6 +24,12 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import xyz.playedu.api.FCtx;
+import xyz.playedu.api.bus.UserBus;
+import xyz.playedu.api.caches.CourseCache;
+import xyz.playedu.api.caches.UserLatestLearnCache;
+import xyz.playedu.api.caches.UserLearnRankCache;
+import xyz.playedu.api.caches.UserLearnSummaryCache;
+import xyz.playedu.api.config.QueryExecutor;
 import xyz.playedu.api.constant.FrontendConstant;
 import xyz.playedu.api.domain.*;
 import xyz.playedu.api.exception.ServiceException;
@@ -35,6 +41,8 @@ import xyz.playedu.api.types.response.UserLatestLearn;
 import xyz.playedu.api.util.PrivacyUtil;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 @RestController
@@ -54,10 +62,20 @@ public class UserController {
 
     @Autowired private UserCourseHourRecordService userCourseHourRecordService;
 
-    @Autowired private UserLearnDurationStatsService userLearnDurationStatsService;
-
     @Autowired private UploadService uploadService;
 
+    @Autowired private UserLearnRankCache userLearnRankCache;
+
+    @Autowired private UserLearnSummaryCache userLearnSummaryCache;
+
+    @Autowired private UserLatestLearnCache userLatestLearnCache;
+
+    @Autowired private CourseCache courseCache;
+
+    @Autowired private QueryExecutor queryExecutor;
+
+    @Autowired private UserBus userBus;
+
     @GetMapping("/detail")
     public JsonResponse detail() {
         User user = FCtx.getUser();
@@ -103,8 +121,11 @@ public class UserController {
         }
 
         Integer categoryId = MapUtils.getInteger(params, "category_id");
+        // FCtx基于ThreadLocal,需在分发到线程池之前读取
+        Integer userId = FCtx.getId();
 
-        List<Integer> userJoinDepIds = userService.getDepIdsByUserId(FCtx.getId());
+        // 先校验部门归属,未通过时不发起后续查询
+        List<Integer> userJoinDepIds = userService.getDepIdsByUserId(userId);
         if (userJoinDepIds == null) {
             return JsonResponse.error("当前学员未加入任何部门");
         }
@@ -112,22 +133,47 @@ public class UserController {
             return JsonResponse.error("当前学员未加入所选择部门");
         }
 
+        // 已发起的并行查询,异常退出时取消其中未完成的
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        try {
+            return JsonResponse.data(loadCourses(userId, depId, categoryId, futures));
+        } catch (CompletionException e) {
+            throw QueryExecutor.unwrap(e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private HashMap<String, Object> loadCourses(
+            Integer userId, Integer depId, Integer categoryId, List<CompletableFuture<?>> futures) {
+        // -------- 互不依赖的查询并行执行 ----------
+        // 读取部门课
+        CompletableFuture<List<Course>> depCoursesFuture =
+                queryExecutor.supply(
+                        () ->
+                                courseService.getDepCoursesAndShow(
+                                        userBus.courseDepIds(
+                                                new ArrayList<>() {
+                                                    {
+                                                        add(depId);
+                                                    }
+                                                }),
+                                        categoryId));
+        // 全部部门课
+        CompletableFuture<List<Course>> openCoursesFuture =
+                queryExecutor.supply(() -> courseService.getOpenCoursesAndShow(500, categoryId));
+        // 今日学习时长 & 学习总时长
+        CompletableFuture<Map<String, Long>> learnDurationsFuture =
+                queryExecutor.supply(() -> userLearnSummaryCache.durations(userId));
+        futures.addAll(List.of(depCoursesFuture, openCoursesFuture, learnDurationsFuture));
+
         HashMap<String, Object> data = new HashMap<>();
         data.put("learn_course_records", new HashMap<>());
 
         // -------- 读取当前学员可以参加的课程 ----------
         List<Course> courses = new ArrayList<>();
-        // 读取部门课
-        List<Course> depCourses =
-                courseService.getDepCoursesAndShow(
-                        new ArrayList<>() {
-                            {
-                                add(depId);
-                            }
-                        },
-                        categoryId);
-        // 全部部门课
-        List<Course> openCourses = courseService.getOpenCoursesAndShow(500, categoryId);
+        List<Course> depCourses = depCoursesFuture.join();
+        List<Course> openCourses = openCoursesFuture.join();
         // 汇总到一个list中
         if (depCourses != null && depCourses.size() > 0) {
             courses.addAll(depCourses);
@@ -147,136 +193,83 @@ public class UserController {
 
         List<Integer> courseIds = courses.stream().map(Course::getId).toList();
 
+        // -------- 学习进度与课时学习数量依赖课程id,在第二批并行读取 ----------
+        CompletableFuture<List<UserCourseRecord>> learnCourseRecordsFuture =
+                queryExecutor.supply(
+                        () ->
+                                courseIds.size() > 0
+                                        ? userCourseRecordService.chunk(userId, courseIds)
+                                        : new ArrayList<>());
+        CompletableFuture<List<UserCourseHourRecordCourseCountMapper>> userCourseHourCountFuture =
+                queryExecutor.supply(
+                        () ->
+                                userCourseHourRecordService.getUserCourseHourCount(
+                                        userId, courseIds, null));
+        futures.addAll(List.of(learnCourseRecordsFuture, userCourseHourCountFuture));
+
         // -------- 读取学习进度 ----------
-        Map<Integer, UserCourseRecord> learnCourseRecords = new HashMap<>();
-        if (courses.size() > 0) {
-            learnCourseRecords =
-                    userCourseRecordService.chunk(FCtx.getId(), courseIds).stream()
-                            .collect(Collectors.toMap(UserCourseRecord::getCourseId, e -> e));
-        }
+        Map<Integer, UserCourseRecord> learnCourseRecords =
+                learnCourseRecordsFuture.join().stream()
+                        .collect(Collectors.toMap(UserCourseRecord::getCourseId, e -> e));
         data.put("learn_course_records", learnCourseRecords);
 
-        int requiredCourseCount = 0;
-        int nunRequiredCourseCount = 0;
-        int requiredFinishedCourseCount = 0; // 已完成必修课
-        int nunRequiredFinishedCourseCount = 0; // 已完成选修课
-        int requiredHourCount = 0; // 必修课时
-        int nunRequiredHourCount = 0; // 选修课时
-        int requiredFinishedHourCount = 0; // 已完成必修课时
-        int nunRequiredFinishedHourCount = 0; // 已完成选修课时
-        Long todayLearnDuration =
-                userLearnDurationStatsService.todayUserDuration(FCtx.getId()); // 今日学习时长
-        Long learnDuration = userLearnDurationStatsService.userDuration(FCtx.getId()); // 学习总时长
-
         // -------- 学习数据统计 ----------
-        if (courses.size() > 0) {
-            for (Course courseItem : courses) {
-                if (courseItem.getIsRequired() == 1) {
-                    requiredHourCount += courseItem.getClassHour();
-                    requiredCourseCount += 1;
-                } else {
-                    nunRequiredHourCount += courseItem.getClassHour();
-                    nunRequiredCourseCount += 1;
-                }
-                UserCourseRecord learnRecord = learnCourseRecords.get(courseItem.getId());
-                if (learnRecord == null) {
-                    continue;
-                }
-                if (courseItem.getIsRequired() == 1) {
-                    requiredFinishedHourCount += learnRecord.getFinishedCount();
-                    if (learnRecord.getIsFinished() == 1) {
-                        requiredFinishedCourseCount++;
-                    }
-                } else {
-                    nunRequiredFinishedHourCount += learnRecord.getFinishedCount();
-                    if (learnRecord.getIsFinished() == 1) {
-                        nunRequiredFinishedCourseCount++;
-                    }
-                }
-            }
-        }
-        HashMap<String, Object> stats = new HashMap<>();
-        stats.put("required_course_count", requiredCourseCount); // 必修课数量
-        stats.put("nun_required_course_count", nunRequiredCourseCount); // 选修课数量
-        stats.put("required_finished_course_count", requiredFinishedCourseCount); // 必修已完成线上课数
+        HashMap<String, Object> stats = new HashMap<>(courseStats(courses, learnCourseRecords));
+        Map<String, Long> learnDurations = learnDurationsFuture.join();
         stats.put(
-                "nun_required_finished_course_count", nunRequiredFinishedCourseCount); // 选修已完成线上课数
-        stats.put("required_hour_count", requiredHourCount); // 必修课时总数
-        stats.put("nun_required_hour_count", nunRequiredHourCount); // 选修课时总数
-        stats.put("required_finished_hour_count", requiredFinishedHourCount); // 必修已完成课时数
-        stats.put("nun_required_finished_hour_count", nunRequiredFinishedHourCount); // 选修已完成课时数
-        stats.put("today_learn_duration", todayLearnDuration); // 今日学习时长[单位:毫秒]
-        stats.put("learn_duration", learnDuration); // 学习总时长[单位:毫秒]
+                "today_learn_duration",
+                learnDurations.get("today_learn_duration")); // 今日学习时长[单位:毫秒]
+        stats.put("learn_duration", learnDurations.get("learn_duration")); // 学习总时长[单位:毫秒]
         data.put("stats", stats);
 
         // 当前学员每个线上课的学习课时数量(只要学习了就算，不一定需要完成)
         data.put(
                 "user_course_hour_count",
-                userCourseHourRecordService
-                        .getUserCourseHourCount(FCtx.getId(), courseIds, null)
-                        .stream()
+                userCourseHourCountFuture.join().stream()
                         .collect(
                                 Collectors.toMap(
                                         UserCourseHourRecordCourseCountMapper::getCourseId,
                                         UserCourseHourRecordCourseCountMapper::getTotal)));
 
-        return JsonResponse.data(data);
+        return data;
     }
 
     @GetMapping("/latest-learn")
     public JsonResponse latestLearn() {
-        // 读取当前学员最近100条学习的线上课
-        List<UserCourseHourRecord> userCourseHourRecords =
-                userCourseHourRecordService.getLatestCourseIds(FCtx.getId(), 100);
-        if (userCourseHourRecords == null || userCourseHourRecords.size() == 0) {
+        Integer userId = FCtx.getId();
+        // 读取当前学员最近学习的100个线上课 => 最近学习的课时id
+        LinkedHashMap<Integer, Integer> course2hour = userLatestLearnCache.get(userId);
+        if (course2hour.isEmpty()) {
             return JsonResponse.data(new ArrayList<>());
         }
 
-        List<Integer> courseIds =
-                userCourseHourRecords.stream().map(UserCourseHourRecord::getCourseId).toList();
-        List<Integer> hourIds =
-                userCourseHourRecords.stream().map(UserCourseHourRecord::getHourId).toList();
-        Map<Integer, UserCourseHourRecord> hour2Record =
-                userCourseHourRecords.stream()
-                        .collect(Collectors.toMap(UserCourseHourRecord::getHourId, e -> e));
-        Map<Integer, Integer> course2hour =
-                userCourseHourRecords.stream()
-                        .collect(
-                                Collectors.toMap(
-                                        UserCourseHourRecord::getCourseId,
-                                        UserCourseHourRecord::getHourId));
+        List<Integer> courseIds = new ArrayList<>(course2hour.keySet());
+        List<Integer> hourIds = course2hour.values().stream().filter(Objects::nonNull).toList();
 
         // 线上课
-        Map<Integer, Course> courses =
-                courseService
-                        .chunks(
-                                courseIds,
-                                new ArrayList<>() {
-                                    {
-                                        add("id");
-                                        add("title");
-                                        add("thumb");
-                                        add("short_desc");
-                                        add("class_hour");
-                                        add("is_required");
-                                    }
-                                })
-                        .stream()
-                        .collect(Collectors.toMap(Course::getId, e -> e));
+        Map<Integer, Course> courses = courseCache.chunks(courseIds);
 
         // 线上课课时
         Map<Integer, CourseHour> hours =
                 hourService.chunk(hourIds).stream()
                         .collect(Collectors.toMap(CourseHour::getId, e -> e));
 
+        // 课时学习进度
+        Map<Integer, UserCourseHourRecord> hour2Record =
+                userCourseHourRecordService.chunk(userId, hourIds).stream()
+                        .collect(Collectors.toMap(UserCourseHourRecord::getHourId, e -> e));
+
         // 获取学员的线上课进度
         Map<Integer, UserCourseRecord> records =
-                userCourseRecordService.chunk(FCtx.getId(), courseIds).stream()
+                userCourseRecordService.chunk(userId, courseIds).stream()
                         .collect(Collectors.toMap(UserCourseRecord::getCourseId, e -> e));
         List<UserLatestLearn> userLatestLearns = new ArrayList<>();
         for (Integer courseId : courseIds) {
-            UserCourseRecord record = records.get(courseId); // 线上课学习进度
             Course tmpCourse = courses.get(courseId); // 线上课
+            if (tmpCourse == null) {
+                continue;
+            }
+            UserCourseRecord record = records.get(courseId); // 线上课学习进度
             Integer tmpHourId = course2hour.get(courseId); // 最近学习的课时id
             UserCourseHourRecord tmpUserCourseHourRecord = hour2Record.get(tmpHourId); // 课时学习进度
             CourseHour tmpHour = hours.get(tmpHourId); // 课时
@@ -294,4 +287,105 @@ public class UserController {
 
         return JsonResponse.data(userLatestLearns);
     }
+
+    @GetMapping("/learn-rank")
+    public JsonResponse learnRank(@RequestParam HashMap<String, Object> params) {
+        String period = MapUtils.getString(params, "period", UserLearnRankCache.PERIOD_DAY);
+        Integer depId = MapUtils.getInteger(params, "dep_id", 0);
+        if (!userLearnRankCache.isPeriod(period)) {
+            return JsonResponse.error("period参数错误");
+        }
+        if (depId > 0) {
+            List<Integer> userJoinDepIds = userService.getDepIdsByUserId(FCtx.getId());
+            if (userJoinDepIds == null || !userJoinDepIds.contains(depId)) {
+                return JsonResponse.error("当前学员未加入所选择部门");
+            }
+        }
+
+        LinkedHashMap<Integer, Long> top = userLearnRankCache.top(period, depId, 10);
+        Map<Integer, User> users =
+                userService
+                        .chunks(
+                                new ArrayList<>(top.keySet()),
+                                new ArrayList<>() {
+                                    {
+                                        add("id");
+                                        add("name");
+                                        add("avatar");
+                                    }
+                                })
+                        .stream()
+                        .collect(Collectors.toMap(User::getId, e -> e));
+
+        List<HashMap<String, Object>> rank = new ArrayList<>();
+        top.forEach(
+                (userId, duration) -> {
+                    // 已删除的学员
+                    if (!users.containsKey(userId)) {
+                        return;
+                    }
+                    HashMap<String, Object> item = new HashMap<>();
+                    item.put("user", users.get(userId));
+                    item.put("duration", duration);
+                    rank.add(item);
+                });
+
+        HashMap<String, Object> data = new HashMap<>();
+        data.put("rank", rank);
+        data.put("my_rank", userLearnRankCache.rank(period, depId, FCtx.getId())); // 未上榜为null
+        data.put("my_duration", userLearnRankCache.duration(period, depId, FCtx.getId()));
+
+        return JsonResponse.data(data);
+    }
+
+    /** 课程数、课时数及完成情况统计 */
+    private HashMap<String, Integer> courseStats(
+            List<Course> courses, Map<Integer, UserCourseRecord> learnCourseRecords) {
+        int requiredCourseCount = 0;
+        int nunRequiredCourseCount = 0;
+        int requiredFinishedCourseCount = 0; // 已完成必修课
+        int nunRequiredFinishedCourseCount = 0; // 已完成选修课
+        int requiredHourCount = 0; // 必修课时
+        int nunRequiredHourCount = 0; // 选修课时
+        int requiredFinishedHourCount = 0; // 已完成必修课时
+        int nunRequiredFinishedHourCount = 0; // 已完成选修课时
+
+        if (courses.size() > 0) {
+            for (Course courseItem : courses) {
+                if (courseItem.getIsRequired() == 1) {
+                    requiredHourCount += courseItem.getClassHour();
+                    requiredCourseCount += 1;
+                } else {
+                    nunRequiredHourCount += courseItem.getClassHour();
+                    nunRequiredCourseCount += 1;
+                }
+                UserCourseRecord learnRecord = learnCourseRecords.get(courseItem.getId());
+                if (learnRecord == null) {
+                    continue;
+                }
+                if (courseItem.getIsRequired() == 1) {
+                    requiredFinishedHourCount += learnRecord.getFinishedCount();
+                    if (learnRecord.getIsFinished() == 1) {
+                        requiredFinishedCourseCount++;
+                    }
+                } else {
+                    nunRequiredFinishedHourCount += learnRecord.getFinishedCount();
+                    if (learnRecord.getIsFinished() == 1) {
+                        nunRequiredFinishedCourseCount++;
+                    }
+                }
+            }
+        }
+        HashMap<String, Integer> stats = new HashMap<>();
+        stats.put("required_course_count", requiredCourseCount); // 必修课数量
+        stats.put("nun_required_course_count", nunRequiredCourseCount); // 选修课数量
+        stats.put("required_finished_course_count", requiredFinishedCourseCount); // 必修已完成线上课数
+        stats.put(
+                "nun_required_finished_course_count", nunRequiredFinishedCourseCount); // 选修已完成线上课数
+        stats.put("required_hour_count", requiredHourCount); // 必修课时总数
+        stats.put("nun_required_hour_count", nunRequiredHourCount); // 选修课时总数
+        stats.put("required_finished_hour_count", requiredFinishedHourCount); // 必修已完成课时数
+        stats.put("nun_required_finished_hour_count", nunRequiredFinishedHourCount); // 选修已完成课时数
+        return stats;
+    }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.domain;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * @TableName course_hour_playback_stats
+ */
+@TableName(value = "course_hour_playback_stats")
+@Data
+public class CourseHourPlaybackStats implements Serializable {
+    @JsonProperty("hour_id")
+    private Integer hourId;
+
+    /** 播放位置分桶[0,99] */
+    private Integer bucket;
+
+    /** 播放到该分桶的学员数 */
+    @JsonProperty("learn_count")
+    private Long learnCount;
+
+    @TableField(exist = false)
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public boolean equals(Object that) {
+        if (this == that) {
+            return true;
+        }
+        if (that == null) {
+            return false;
+        }
+        if (getClass() != that.getClass()) {
+            return false;
+        }
+        CourseHourPlaybackStats other = (CourseHourPlaybackStats) that;
+        return (this.getHourId() == null
+                        ? other.getHourId() == null
+                        : this.getHourId().equals(other.getHourId()))
+                && (this.getBucket() == null
+                        ? other.getBucket() == null
+                        : this.getBucket().equals(other.getBucket()))
+                && (this.getLearnCount() == null
+                        ? other.getLearnCount() == null
+                        : this.getLearnCount().equals(other.getLearnCount()));
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + ((getHourId() == null) ? 0 : getHourId().hashCode());
+        result = prime * result + ((getBucket() == null) ? 0 : getBucket().hashCode());
+        result = prime * result + ((getLearnCount() == null) ? 0 : getLearnCount().hashCode());
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(getClass().getSimpleName());
+        sb.append(" [");
+        sb.append("Hash = ").append(hashCode());
+        sb.append(", hourId=").append(hourId);
+        sb.append(", bucket=").append(bucket);
+        sb.append(", learnCount=").append(learnCount);
+        sb.append(", serialVersionUID=").append(serialVersionUID);
+        sb.append("]");
+        return sb.toString();
+    }
+}
@@ -19,10 +19,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import xyz.playedu.api.bus.PurgeBus;
+import xyz.playedu.api.caches.CourseCatalog;
+import xyz.playedu.api.caches.CourseSearchIndex;
+import xyz.playedu.api.caches.PaginateCountCache;
 import xyz.playedu.api.event.CourseDestroyEvent;
 import xyz.playedu.api.service.CourseDepartmentService;
-import xyz.playedu.api.service.UserCourseHourRecordService;
-import xyz.playedu.api.service.UserCourseRecordService;
 import xyz.playedu.api.service.internal.ResourceCourseCategoryService;
 
 /**
@@ -37,9 +39,13 @@ public class CourseDestroyListener {
 
     @Autowired private ResourceCourseCategoryService courseCategoryService;
 
-    @Autowired private UserCourseRecordService userCourseRecordService;
+    @Autowired private PurgeBus purgeBus;
 
-    @Autowired private UserCourseHourRecordService userCourseHourRecordService;
+    @Autowired private PaginateCountCache paginateCountCache;
+
+    @Autowired private CourseSearchIndex courseSearchIndex;
+
+    @Autowired private CourseCatalog courseCatalog;
 
     @EventListener
     public void departmentRelateRemove(CourseDestroyEvent event) {
@@ -53,7 +59,22 @@ public class CourseDestroyListener {
 
     @EventListener
     public void removeUserRecords(CourseDestroyEvent event) {
-        userCourseRecordService.removeByCourseId(event.getCourseId());
-        userCourseHourRecordService.removeByCourseId(event.getCourseId());
+        // 学员学习记录数据量大,由后台任务分批清理
+        purgeBus.enqueue(PurgeBus.TYPE_COURSE, event.getCourseId());
+    }
+
+    @EventListener
+    public void forgetPaginateCount(CourseDestroyEvent event) {
+        paginateCountCache.forget(PaginateCountCache.SCOPE_COURSE);
+    }
+
+    @EventListener
+    public void removeSearchIndex(CourseDestroyEvent event) {
+        courseSearchIndex.remove(event.getCourseId());
+    }
+
+    @EventListener
+    public void removeFromCatalog(CourseDestroyEvent event) {
+        courseCatalog.remove(event.getCourseId());
     }
 }
@@ -19,6 +19,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import xyz.playedu.api.caches.CourseHourPlaybackHistogram;
 import xyz.playedu.api.event.CourseHourDestroyEvent;
 import xyz.playedu.api.service.CourseHourService;
 import xyz.playedu.api.service.CourseService;
@@ -35,9 +36,16 @@ public class CourseHourDestroyListener {
 
     @Autowired private CourseService courseService;
 
+    @Autowired private CourseHourPlaybackHistogram playbackHistogram;
+
     @EventListener
     public void courseClassHourUpdate(CourseHourDestroyEvent event) {
         Integer classHour = hourService.getCountByCourseId(event.getCourseId());
         courseService.updateClassHour(event.getCourseId(), classHour);
     }
+
+    @EventListener
+    public void removePlaybackStats(CourseHourDestroyEvent event) {
+        playbackHistogram.forget(event.getHourId());
+    }
 }
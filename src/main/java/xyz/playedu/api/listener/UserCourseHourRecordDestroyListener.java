@@ -21,6 +21,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import xyz.playedu.api.caches.UserLatestLearnCache;
 import xyz.playedu.api.event.UserCourseHourRecordDestroyEvent;
 import xyz.playedu.api.service.UserCourseRecordService;
 
@@ -35,8 +36,15 @@ public class UserCourseHourRecordDestroyListener {
 
     @Autowired private UserCourseRecordService userCourseRecordService;
 
+    @Autowired private UserLatestLearnCache userLatestLearnCache;
+
     @EventListener
     public void updateUserCourseRecord(UserCourseHourRecordDestroyEvent e) {
         userCourseRecordService.decrease(e.getUserId(), e.getCourseId(), 1);
     }
+
+    @EventListener
+    public void forgetLatestLearn(UserCourseHourRecordDestroyEvent e) {
+        userLatestLearnCache.forget(e.getUserId());
+    }
 }
@@ -19,6 +19,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import xyz.playedu.api.caches.UserLatestLearnCache;
+import xyz.playedu.api.event.UserCourseRecordBatchDestroyEvent;
 import xyz.playedu.api.event.UserCourseRecordDestroyEvent;
 import xyz.playedu.api.service.UserCourseHourRecordService;
 
@@ -32,8 +34,25 @@ public class UserCourseRecordDestroyListener {
 
     @Autowired private UserCourseHourRecordService userCourseHourRecordService;
 
+    @Autowired private UserLatestLearnCache userLatestLearnCache;
+
     @EventListener
     public void emptyUserCourseHourRecords(UserCourseRecordDestroyEvent event) {
         userCourseHourRecordService.remove(event.getUserId(), event.getCourseId());
     }
+
+    @EventListener
+    public void forgetLatestLearn(UserCourseRecordDestroyEvent event) {
+        userLatestLearnCache.forget(event.getUserId());
+    }
+
+    @EventListener
+    public void emptyUserCourseHourRecords(UserCourseRecordBatchDestroyEvent event) {
+        userCourseHourRecordService.remove(event.getUserIds(), event.getCourseId());
+    }
+
+    @EventListener
+    public void forgetLatestLearn(UserCourseRecordBatchDestroyEvent event) {
+        userLatestLearnCache.forget(event.getUserIds());
+    }
 }
@@ -21,8 +21,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import xyz.playedu.api.bus.PurgeBus;
+import xyz.playedu.api.caches.PaginateCountCache;
+import xyz.playedu.api.caches.UserLatestLearnCache;
+import xyz.playedu.api.caches.UserLearnRankCache;
+import xyz.playedu.api.caches.UserLearnSummaryCache;
+import xyz.playedu.api.caches.UserSearchIndex;
 import xyz.playedu.api.event.UserDestroyEvent;
-import xyz.playedu.api.service.*;
+import xyz.playedu.api.service.UserService;
 
 /**
  * @Author 杭州白书科技有限公司
@@ -35,23 +41,44 @@ public class UserDestroyListener {
 
     @Autowired private UserService userService;
 
-    @Autowired private UserCourseHourRecordService userCourseHourRecordService;
+    @Autowired private PurgeBus purgeBus;
 
-    @Autowired private UserCourseRecordService userCourseRecordService;
+    @Autowired private PaginateCountCache paginateCountCache;
 
-    @Autowired private UserLearnDurationRecordService userLearnDurationRecordService;
+    @Autowired private UserSearchIndex userSearchIndex;
 
-    @Autowired private UserLearnDurationStatsService userLearnDurationStatsService;
+    @Autowired private UserLearnSummaryCache userLearnSummaryCache;
 
-    @Autowired private UserLoginRecordService userLoginRecordService;
+    @Autowired private UserLatestLearnCache userLatestLearnCache;
+
+    @Autowired private UserLearnRankCache userLearnRankCache;
 
     @EventListener
     public void remoteRelation(UserDestroyEvent event) {
         userService.removeRelateDepartmentsByUserId(event.getUserId());
-        userCourseHourRecordService.remove(event.getUserId());
-        userCourseRecordService.destroy(event.getUserId());
-        userLearnDurationRecordService.remove(event.getUserId());
-        userLearnDurationStatsService.remove(event.getUserId());
-        userLoginRecordService.remove(event.getUserId());
+        // 学习记录、登录记录等数据量大,由后台任务分批清理
+        purgeBus.enqueue(PurgeBus.TYPE_USER, event.getUserId());
+    }
+
+    @EventListener
+    public void forgetPaginateCount(UserDestroyEvent event) {
+        paginateCountCache.forget(PaginateCountCache.SCOPE_USER);
+    }
+
+    @EventListener
+    public void removeSearchIndex(UserDestroyEvent event) {
+        userSearchIndex.remove(event.getUserId());
+    }
+
+    @EventListener
+    public void removeLearnRank(UserDestroyEvent event) {
+        // 部门排行榜在删除部门关联时移除
+        userLearnRankCache.remove(event.getUserId());
+    }
+
+    @EventListener
+    public void forgetLearnSummary(UserDestroyEvent event) {
+        userLearnSummaryCache.forget(event.getUserId());
+        userLatestLearnCache.forget(event.getUserId());
     }
 }
@@ -21,9 +21,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import xyz.playedu.api.caches.CourseLearnStatsCache;
+import xyz.playedu.api.caches.UserActiveCache;
+import xyz.playedu.api.caches.UserLearnRankCache;
+import xyz.playedu.api.caches.UserLearnSummaryCache;
 import xyz.playedu.api.event.UserLearnCourseUpdateEvent;
 import xyz.playedu.api.service.UserLearnDurationRecordService;
 import xyz.playedu.api.service.UserLearnDurationStatsService;
+import xyz.playedu.api.service.UserService;
+
+import java.util.List;
 
 /**
  * @Author 杭州白书科技有限公司
@@ -38,6 +45,16 @@ public class UserLearnCourseUpdateListener {
 
     @Autowired private UserLearnDurationStatsService userLearnDurationStatsService;
 
+    @Autowired private UserService userService;
+
+    @Autowired private UserLearnRankCache userLearnRankCache;
+
+    @Autowired private UserLearnSummaryCache userLearnSummaryCache;
+
+    @Autowired private CourseLearnStatsCache courseLearnStatsCache;
+
+    @Autowired private UserActiveCache userActiveCache;
+
     @EventListener
     public void storeLearnDuration(UserLearnCourseUpdateEvent event) {
         // 观看时长统计
@@ -51,4 +68,28 @@ public class UserLearnCourseUpdateListener {
                 event.getStartAt(),
                 event.getEndAt());
     }
+
+    @EventListener
+    public void updateLearnRankAndActiveUsers(UserLearnCourseUpdateEvent event) {
+        // 排行榜与活跃学员数都按部门统计,部门只读取一次
+        List<Integer> depIds = userService.getDepIdsByUserId(event.getUserId());
+        // 学习时长排行榜
+        userLearnRankCache.incr(event.getUserId(), depIds, event.getEndAt() - event.getStartAt());
+        // 活跃学员数
+        userActiveCache.add(event.getUserId(), depIds);
+    }
+
+    @EventListener
+    public void updateLearnSummary(UserLearnCourseUpdateEvent event) {
+        // 学习概况中的学习时长
+        userLearnSummaryCache.incrDuration(
+                event.getUserId(), event.getEndAt() - event.getStartAt());
+    }
+
+    @EventListener
+    public void updateCourseLearnStats(UserLearnCourseUpdateEvent event) {
+        // 线上课学习总时长
+        courseLearnStatsCache.incrDuration(
+                event.getCourseId(), event.getEndAt() - event.getStartAt());
+    }
 }
@@ -21,10 +21,15 @@ import org.apache.ibatis.annotations.Mapper;
 
 import xyz.playedu.api.domain.CourseChapter;
 
+import java.util.List;
+
 /**
  * @author tengteng
  * @description 针对表【course_chapters】的数据库操作Mapper
  * @createDate 2023-02-26 17:34:01 @Entity xyz.playedu.api.domain.CourseChapter
  */
 @Mapper
-public interface CourseChapterMapper extends BaseMapper<CourseChapter> {}
+public interface CourseChapterMapper extends BaseMapper<CourseChapter> {
+    /** 多行INSERT,回填自增id */
+    int insertBatch(List<CourseChapter> items);
+}
@@ -21,10 +21,15 @@ import org.apache.ibatis.annotations.Mapper;
 
 import xyz.playedu.api.domain.CourseHour;
 
+import java.util.List;
+
 /**
  * @author tengteng
  * @description 针对表【course_hour】的数据库操作Mapper
  * @createDate 2023-03-15 10:16:45 @Entity xyz.playedu.api.domain.CourseHour
  */
 @Mapper
-public interface CourseHourMapper extends BaseMapper<CourseHour> {}
+public interface CourseHourMapper extends BaseMapper<CourseHour> {
+    /** 多行INSERT,回填自增id */
+    int insertBatch(List<CourseHour> items);
+}
@@ -20,6 +20,7 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
 
 import xyz.playedu.api.domain.Course;
+import xyz.playedu.api.types.mapper.DepartmentCourseMapper;
 import xyz.playedu.api.types.paginate.CoursePaginateFiler;
 
 import java.util.List;
@@ -36,5 +37,9 @@ public interface CourseMapper extends BaseMapper<Course> {
 
     Long paginateCount(CoursePaginateFiler filer);
 
+    Long estimateTotal();
+
     List<Course> openCoursesAndShow(Integer limit, Integer categoryId);
+
+    List<DepartmentCourseMapper> depCoursesAndShow(List<Integer> depIds);
 }
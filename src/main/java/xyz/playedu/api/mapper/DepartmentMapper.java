@@ -32,4 +32,14 @@ import java.util.List;
 @Mapper
 public interface DepartmentMapper extends BaseMapper<Department> {
     List<DepartmentsUserCountMapRes> getDepartmentsUserCount();
+
+    /**
+     * 将parent_chain为oldChain或以"oldChain,"开头的子孙部门整体改挂到newChain下
+     *
+     * @param parentId 直属子部门(parent_chain=oldChain)的新parent_id
+     * @param newPrefix newChain为空时为空,否则为"newChain,"
+     * @param offset oldChain之后剩余部分的起始位置(从1开始)
+     */
+    int updateParentChain(
+            String oldChain, String newChain, Integer parentId, String newPrefix, Integer offset);
 }
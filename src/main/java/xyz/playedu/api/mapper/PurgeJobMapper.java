@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+import org.apache.ibatis.annotations.Mapper;
+
+import xyz.playedu.api.domain.PurgeJob;
+
+/**
+ * @description 针对表【purge_jobs】的数据库操作Mapper @Entity xyz.playedu.api.domain.PurgeJob
+ */
+@Mapper
+public interface PurgeJobMapper extends BaseMapper<PurgeJob> {
+    /**
+     * 按主键顺序删除一批关联数据
+     *
+     * @param table 表名,由调用方保证为白名单内的值
+     * @param column 关联字段,由调用方保证为白名单内的值
+     * @return 删除的行数
+     */
+    int deleteChunk(String table, String column, Integer value, Integer limit);
+}
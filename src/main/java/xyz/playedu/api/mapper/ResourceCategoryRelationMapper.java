@@ -20,6 +20,9 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
 
 import xyz.playedu.api.domain.ResourceCategoryRelation;
+import xyz.playedu.api.types.mapper.ResourceCategoryCountMapper;
+
+import java.util.List;
 
 /**
  * @author tengteng
@@ -27,4 +30,6 @@ import xyz.playedu.api.domain.ResourceCategoryRelation;
  * @createDate 2023-03-08 16:54:56 @Entity xyz.playedu.api.domain.ResourceCategoryRelation
  */
 @Mapper
-public interface ResourceCategoryRelationMapper extends BaseMapper<ResourceCategoryRelation> {}
+public interface ResourceCategoryRelationMapper extends BaseMapper<ResourceCategoryRelation> {
+    List<ResourceCategoryCountMapper> countGroupByCid();
+}
@@ -20,6 +20,9 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
 
 import xyz.playedu.api.domain.ResourceCourseCategory;
+import xyz.playedu.api.types.mapper.CourseCategoryCountMapper;
+
+import java.util.List;
 
 /**
  * @author tengteng
@@ -27,4 +30,6 @@ import xyz.playedu.api.domain.ResourceCourseCategory;
  * @createDate 2023-03-09 09:54:22 @Entity xyz.playedu.api.domain.ResourceCourseCategory
  */
 @Mapper
-public interface ResourceCourseCategoryMapper extends BaseMapper<ResourceCourseCategory> {}
+public interface ResourceCourseCategoryMapper extends BaseMapper<ResourceCourseCategory> {
+    List<CourseCategoryCountMapper> countGroupByCategoryId();
+}
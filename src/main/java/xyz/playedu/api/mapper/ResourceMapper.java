@@ -34,5 +34,7 @@ public interface ResourceMapper extends BaseMapper<Resource> {
 
     List<Resource> paginate(ResourcePaginateFilter filter);
 
+    List<Resource> cursorPaginate(ResourcePaginateFilter filter);
+
     Long paginateCount(ResourcePaginateFilter filter);
 }
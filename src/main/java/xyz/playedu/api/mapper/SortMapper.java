@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+
+import java.util.List;
+
+/** 批量排序:按给定顺序用一条UPDATE ... CASE id更新sort字段 */
+@Mapper
+public interface SortMapper {
+
+    int CHUNK_SIZE = 1000;
+
+    /**
+     * 按ids的顺序更新sort值
+     *
+     * @param table 表名,由调用方保证为白名单内的值
+     * @param scopeColumn 限定范围的字段(如course_id),为null时不限定,由调用方保证为白名单内的值
+     * @param start ids中第一个元素的sort值
+     * @return 更新的行数
+     */
+    int updateSort(
+            String table, String scopeColumn, Integer scopeValue, List<Integer> ids, Integer start);
+
+    /** 按ids的顺序重置sort值,数量较多时分批执行 */
+    default int resetSort(
+            String table, String scopeColumn, Integer scopeValue, List<Integer> ids, int start) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        int rows = 0;
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            rows +=
+                    updateSort(
+                            table,
+                            scopeColumn,
+                            scopeValue,
+                            ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())),
+                            start + from);
+        }
+        return rows;
+    }
+}
@@ -47,5 +47,7 @@ public interface UserCourseHourRecordMapper extends BaseMapper<UserCourseHourRec
 
     List<UserCourseHourRecord> paginate(UserCourseHourRecordPaginateFilter filter);
 
+    List<UserCourseHourRecord> cursorPaginate(UserCourseHourRecordPaginateFilter filter);
+
     Long paginateCount(UserCourseHourRecordPaginateFilter filter);
 }
@@ -20,6 +20,7 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
 
 import xyz.playedu.api.domain.UserCourseRecord;
+import xyz.playedu.api.types.mapper.CourseLearnStatsMapper;
 import xyz.playedu.api.types.paginate.UserCourseRecordPaginateFilter;
 
 import java.util.List;
@@ -33,5 +34,9 @@ import java.util.List;
 public interface UserCourseRecordMapper extends BaseMapper<UserCourseRecord> {
     List<UserCourseRecord> paginate(UserCourseRecordPaginateFilter filter);
 
+    List<UserCourseRecord> cursorPaginate(UserCourseRecordPaginateFilter filter);
+
     long paginateTotal(UserCourseRecordPaginateFilter filter);
+
+    List<CourseLearnStatsMapper> courseLearnStats(List<Integer> courseIds);
 }
@@ -20,6 +20,9 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
 
 import xyz.playedu.api.domain.UserLearnDurationRecord;
+import xyz.playedu.api.types.mapper.CourseLearnStatsMapper;
+
+import java.util.List;
 
 /**
  * @author tengteng
@@ -27,4 +30,6 @@ import xyz.playedu.api.domain.UserLearnDurationRecord;
  * @createDate 2023-03-22 13:55:17 @Entity xyz.playedu.api.domain.UserLearnDurationRecord
  */
 @Mapper
-public interface UserLearnDurationRecordMapper extends BaseMapper<UserLearnDurationRecord> {}
+public interface UserLearnDurationRecordMapper extends BaseMapper<UserLearnDurationRecord> {
+    List<CourseLearnStatsMapper> courseLearnDuration(List<Integer> courseIds);
+}
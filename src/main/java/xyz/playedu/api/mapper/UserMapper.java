@@ -34,5 +34,12 @@ public interface UserMapper extends BaseMapper<User> {
 
     List<User> paginate(UserPaginateFilter filter);
 
+    List<User> cursorPaginate(UserPaginateFilter filter);
+
     Long paginateCount(UserPaginateFilter filter);
+
+    Long estimateTotal();
+
+    /** 多行INSERT批量写入,回填自增id */
+    void insertBatch(List<User> items);
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.middleware;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import xyz.playedu.api.types.JsonResponse;
+import xyz.playedu.api.util.HelperUtil;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * 按接口校验上传大小
+ *
+ * <p>学员导入接口使用playedu.user-import.max-upload-size,其余接口使用spring.servlet.multipart.max-request-size
+ */
+@Component
+public class UploadSizeFilter extends OncePerRequestFilter {
+
+    private static final Set<String> IMPORT_PATHS = Set.of("/backend/v1/user/import-jobs/upload");
+
+    @Autowired private MultipartProperties multipartProperties;
+
+    @Value("${playedu.user-import.max-upload-size:20MB}")
+    private DataSize importMaxSize;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType == null || !contentType.toLowerCase().startsWith("multipart/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long limit =
+                IMPORT_PATHS.contains(request.getRequestURI())
+                        ? importMaxSize.toBytes()
+                        : multipartProperties.getMaxRequestSize().toBytes();
+        long length = request.getContentLengthLong();
+        if (limit >= 0 && length < 0) {
+            // 未声明长度(分块传输)时解析后按实际大小判断
+            length = 0;
+            for (Part part : request.getParts()) {
+                length += part.getSize();
+            }
+        }
+        if (limit >= 0 && length > limit) {
+            response.setStatus(413);
+            response.setContentType("application/json;charset=utf-8");
+            response.getWriter()
+                    .print(
+                            HelperUtil.toJsonStr(
+                                    JsonResponse.error(
+                                            "上传文件不能超过"
+                                                    + DataSize.ofBytes(limit).toMegabytes()
+                                                    + "MB")));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
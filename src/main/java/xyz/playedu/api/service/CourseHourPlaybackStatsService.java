@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+
+import xyz.playedu.api.domain.CourseHourPlaybackStats;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @description 针对表【course_hour_playback_stats】的数据库操作Service
+ */
+public interface CourseHourPlaybackStatsService extends IService<CourseHourPlaybackStats> {
+    void incr(Map<Integer, long[]> histograms);
+
+    long[] histogram(Integer hourId, int bucketCount);
+
+    void removeByHourIds(List<Integer> hourIds);
+}
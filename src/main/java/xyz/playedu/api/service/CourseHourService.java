@@ -53,6 +53,8 @@ public interface CourseHourService extends IService<CourseHour> {
 
     void updateSort(List<Integer> ids, Integer cid);
 
+    void insertBatch(List<CourseHour> hours);
+
     List<Integer> getRidsByCourseId(Integer courseId, String type);
 
     List<CourseHour> chunk(List<Integer> hourIds);
@@ -83,6 +83,9 @@ public interface CourseService extends IService<Course> {
 
     List<Course> getDepCoursesAndShow(List<Integer> depIds, Integer categoryId);
 
+    // 单次查询批量读取多个部门的课程[部门id=>课程列表]
+    Map<Integer, List<Course>> getDepCoursesAndShowGroup(List<Integer> depIds);
+
     Map<Integer, List<Integer>> getCategoryIdsGroup(List<Integer> courseIds);
 
     Map<Integer, List<Integer>> getDepIdsGroup(List<Integer> courseIds);
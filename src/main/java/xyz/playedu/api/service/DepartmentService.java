@@ -65,5 +65,8 @@ public interface DepartmentService extends IService<Department> {
 
     Map<Integer, Integer> getDepartmentsUserCount();
 
+    /** 部门及其子部门的学员数合计(同一学员加入多个子部门时重复计数) */
+    Map<Integer, Integer> getDepartmentsSubtreeUserCount(Map<Integer, Integer> userCount);
+
     List<Department> chunk(List<Integer> ids);
 }
@@ -17,6 +17,8 @@ package xyz.playedu.api.service;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+
 /**
  * @Author 杭州白书科技有限公司
  *
@@ -37,4 +39,8 @@ public interface MinioService {
     String merge(String filename, String uploadId);
 
     void removeByPath(String path);
+
+    void removeByPaths(List<String> paths);
+
+    void removeByPathsAsync(List<String> paths);
 }
@@ -47,6 +47,8 @@ public interface ResourceCategoryService extends IService<ResourceCategory> {
 
     String compParentChain(Integer parentId) throws NotFoundException;
 
+    List<Integer> getSubtreeIds(List<Integer> ids);
+
     List<Integer> getCourseIdsById(Integer id);
 
     List<Integer> getRidsById(Integer id);
@@ -59,5 +61,11 @@ public interface ResourceCategoryService extends IService<ResourceCategory> {
 
     Map<Integer, String> id2name();
 
+    /** 各分类下的资源数量 */
+    Map<Integer, Integer> getResourceCount();
+
+    /** 各分类下的线上课数量 */
+    Map<Integer, Integer> getCourseCount();
+
     Long total();
 }
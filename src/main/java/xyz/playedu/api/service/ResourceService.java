@@ -19,6 +19,7 @@ import com.baomidou.mybatisplus.extension.service.IService;
 
 import xyz.playedu.api.domain.Resource;
 import xyz.playedu.api.exception.NotFoundException;
+import xyz.playedu.api.types.paginate.CursorPaginationResult;
 import xyz.playedu.api.types.paginate.PaginationResult;
 import xyz.playedu.api.types.paginate.ResourcePaginateFilter;
 
@@ -57,4 +58,14 @@ public interface ResourceService extends IService<Resource> {
     void updateNameAndCategoryId(Integer id, String name, Integer categoryId);
 
     List<Integer> categoryIds(Integer resourceId);
+
+    /**
+     * 批量删除资源记录(含视频封面等子资源)及关联数据
+     *
+     * @return 需要从存储中删除的文件路径
+     */
+    List<String> destroy(List<Resource> resources);
+
+    CursorPaginationResult<Resource> cursorPaginate(
+            String cursor, int size, ResourcePaginateFilter filter, boolean withTotal);
 }
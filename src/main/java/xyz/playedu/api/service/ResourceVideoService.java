@@ -32,5 +32,7 @@ public interface ResourceVideoService extends IService<ResourceVideo> {
 
     void removeByRid(Integer resourceId);
 
+    void removeByRids(List<Integer> resourceIds);
+
     List<ResourceVideo> chunksByRids(List<Integer> resourceIds);
 }
@@ -21,6 +21,7 @@ import xyz.playedu.api.domain.UserCourseHourRecord;
 import xyz.playedu.api.types.mapper.UserCourseHourRecordCourseCountMapper;
 import xyz.playedu.api.types.mapper.UserCourseHourRecordUserCountMapper;
 import xyz.playedu.api.types.mapper.UserCourseHourRecordUserFirstCreatedAtMapper;
+import xyz.playedu.api.types.paginate.CursorPaginationResult;
 import xyz.playedu.api.types.paginate.PaginationResult;
 import xyz.playedu.api.types.paginate.UserCourseHourRecordPaginateFilter;
 
@@ -47,10 +48,12 @@ public interface UserCourseHourRecordService extends IService<UserCourseHourReco
 
     List<UserCourseHourRecord> getLatestCourseIds(Integer userId, Integer size);
 
-    void removeByCourseId(Integer courseId);
+    List<UserCourseHourRecord> chunk(Integer userId, List<Integer> hourIds);
 
     void remove(Integer userId, Integer courseId);
 
+    void remove(List<Integer> userIds, Integer courseId);
+
     void remove(Integer userId);
 
     void remove(Integer userId, Integer courseId, Integer hourId);
@@ -66,4 +69,7 @@ public interface UserCourseHourRecordService extends IService<UserCourseHourReco
 
     PaginationResult<UserCourseHourRecord> paginate(
             int page, int size, UserCourseHourRecordPaginateFilter filter);
+
+    CursorPaginationResult<UserCourseHourRecord> cursorPaginate(
+            String cursor, int size, UserCourseHourRecordPaginateFilter filter, boolean withTotal);
 }
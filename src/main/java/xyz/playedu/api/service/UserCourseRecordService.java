@@ -18,6 +18,7 @@ package xyz.playedu.api.service;
 import com.baomidou.mybatisplus.extension.service.IService;
 
 import xyz.playedu.api.domain.UserCourseRecord;
+import xyz.playedu.api.types.paginate.CursorPaginationResult;
 import xyz.playedu.api.types.paginate.PaginationResult;
 import xyz.playedu.api.types.paginate.UserCourseRecordPaginateFilter;
 
@@ -45,11 +46,14 @@ public interface UserCourseRecordService extends IService<UserCourseRecord> {
 
     void destroy(Integer userId, Integer courseId);
 
-    void destroy(Integer userId);
+    List<UserCourseRecord> chunks(List<Integer> ids, List<String> fields);
 
-    void removeByCourseId(Integer courseId);
+    List<UserCourseRecord> chunks(Integer courseId, List<Integer> ids, List<String> fields);
 
-    List<UserCourseRecord> chunks(List<Integer> ids, List<String> fields);
+    List<Integer> getCourseIdsByUserId(Integer userId);
 
     void decrease(Integer userId, Integer courseId, int count);
+
+    CursorPaginationResult<UserCourseRecord> cursorPaginate(
+            String cursor, int size, UserCourseRecordPaginateFilter filter, boolean withTotal);
 }
@@ -20,6 +20,7 @@ import com.baomidou.mybatisplus.extension.service.IService;
 import xyz.playedu.api.domain.User;
 import xyz.playedu.api.exception.NotFoundException;
 import xyz.playedu.api.exception.ServiceException;
+import xyz.playedu.api.types.paginate.CursorPaginationResult;
 import xyz.playedu.api.types.paginate.PaginationResult;
 import xyz.playedu.api.types.paginate.UserPaginateFilter;
 
@@ -38,6 +39,8 @@ public interface UserService extends IService<User> {
 
     List<String> existsEmailsByEmails(List<String> emails);
 
+    void insertBatch(List<User> users);
+
     void removeRelateDepartmentsByUserId(Integer userId);
 
     User findOrFail(Integer id) throws NotFoundException;
@@ -80,4 +83,7 @@ public interface UserService extends IService<User> {
     Map<Integer, List<Integer>> getDepIdsGroup(List<Integer> userIds);
 
     void changeAvatar(Integer userId, String avatar);
+
+    CursorPaginationResult<User> cursorPaginate(
+            String cursor, int size, UserPaginateFilter filter, boolean withTotal);
 }
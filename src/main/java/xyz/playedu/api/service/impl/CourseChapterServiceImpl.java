@@ -17,14 +17,15 @@ package xyz.playedu.api.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import xyz.playedu.api.domain.CourseChapter;
 import xyz.playedu.api.exception.NotFoundException;
 import xyz.playedu.api.mapper.CourseChapterMapper;
+import xyz.playedu.api.mapper.SortMapper;
 import xyz.playedu.api.service.CourseChapterService;
 
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -37,6 +38,8 @@ import java.util.List;
 public class CourseChapterServiceImpl extends ServiceImpl<CourseChapterMapper, CourseChapter>
         implements CourseChapterService {
 
+    @Autowired private SortMapper sortMapper;
+
     @Override
     public void create(Integer courseId, String name, Integer sort) {
         CourseChapter chapter = new CourseChapter();
@@ -82,21 +85,14 @@ public class CourseChapterServiceImpl extends ServiceImpl<CourseChapterMapper, C
 
     @Override
     public void updateSort(List<Integer> ids, Integer cid) {
-        if (ids == null || ids.size() == 0) {
+        sortMapper.resetSort("course_chapters", "course_id", cid, ids, 0);
+    }
+
+    @Override
+    public void insertBatch(List<CourseChapter> chapters) {
+        if (chapters == null || chapters.isEmpty()) {
             return;
         }
-        List<CourseChapter> chapters = new ArrayList<>();
-        final Integer[] sortVal = {0};
-        for (Integer idItem : ids) {
-            chapters.add(
-                    new CourseChapter() {
-                        {
-                            setId(idItem);
-                            setId(cid);
-                            setSort(sortVal[0]++);
-                        }
-                    });
-        }
-        updateBatchById(chapters);
+        getBaseMapper().insertBatch(chapters);
     }
 }
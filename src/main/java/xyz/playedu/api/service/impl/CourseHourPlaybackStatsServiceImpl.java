@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.service.impl;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import xyz.playedu.api.domain.CourseHourPlaybackStats;
+import xyz.playedu.api.mapper.CourseHourPlaybackStatsMapper;
+import xyz.playedu.api.service.CourseHourPlaybackStatsService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @description 针对表【course_hour_playback_stats】的数据库操作Service实现
+ */
+@Service
+public class CourseHourPlaybackStatsServiceImpl
+        extends ServiceImpl<CourseHourPlaybackStatsMapper, CourseHourPlaybackStats>
+        implements CourseHourPlaybackStatsService {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    @Transactional
+    public void incr(Map<Integer, long[]> histograms) {
+        List<CourseHourPlaybackStats> items = new ArrayList<>();
+        histograms.forEach(
+                (hourId, counts) -> {
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] == 0) {
+                            continue;
+                        }
+                        CourseHourPlaybackStats item = new CourseHourPlaybackStats();
+                        item.setHourId(hourId);
+                        item.setBucket(i);
+                        item.setLearnCount(counts[i]);
+                        items.add(item);
+                    }
+                });
+        for (int i = 0; i < items.size(); i += BATCH_SIZE) {
+            getBaseMapper().batchIncr(items.subList(i, Math.min(i + BATCH_SIZE, items.size())));
+        }
+    }
+
+    @Override
+    public long[] histogram(Integer hourId, int bucketCount) {
+        long[] counts = new long[bucketCount];
+        list(query().getWrapper().eq("hour_id", hourId))
+                .forEach(
+                        item -> {
+                            if (item.getBucket() >= 0 && item.getBucket() < bucketCount) {
+                                counts[item.getBucket()] = item.getLearnCount();
+                            }
+                        });
+        return counts;
+    }
+
+    @Override
+    public void removeByHourIds(List<Integer> hourIds) {
+        if (hourIds == null || hourIds.isEmpty()) {
+            return;
+        }
+        remove(query().getWrapper().in("hour_id", hourIds));
+    }
+}
@@ -17,11 +17,13 @@ package xyz.playedu.api.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import xyz.playedu.api.domain.CourseHour;
 import xyz.playedu.api.exception.NotFoundException;
 import xyz.playedu.api.mapper.CourseHourMapper;
+import xyz.playedu.api.mapper.SortMapper;
 import xyz.playedu.api.service.CourseHourService;
 
 import java.util.ArrayList;
@@ -37,6 +39,8 @@ import java.util.List;
 public class CourseHourServiceImpl extends ServiceImpl<CourseHourMapper, CourseHour>
         implements CourseHourService {
 
+    @Autowired private SortMapper sortMapper;
+
     @Override
     public CourseHour findOrFail(Integer id, Integer courseId) throws NotFoundException {
         CourseHour hour = getOne(query().getWrapper().eq("id", id).eq("course_id", courseId));
@@ -109,22 +113,7 @@ public class CourseHourServiceImpl extends ServiceImpl<CourseHourMapper, CourseH
 
     @Override
     public void updateSort(List<Integer> ids, Integer cid) {
-        if (ids == null || ids.size() == 0) {
-            return;
-        }
-        List<CourseHour> hours = new ArrayList<>();
-        final Integer[] sortVal = {0};
-        for (Integer idVal : ids) {
-            hours.add(
-                    new CourseHour() {
-                        {
-                            setId(idVal);
-                            setCourseId(cid);
-                            setSort(sortVal[0]++);
-                        }
-                    });
-        }
-        updateBatchById(hours);
+        sortMapper.resetSort("course_hour", "course_id", cid, ids, 0);
     }
 
     @Override
@@ -141,4 +130,12 @@ public class CourseHourServiceImpl extends ServiceImpl<CourseHourMapper, CourseH
         }
         return list(query().getWrapper().in("id", hourIds));
     }
+
+    @Override
+    public void insertBatch(List<CourseHour> hours) {
+        if (hours == null || hours.isEmpty()) {
+            return;
+        }
+        getBaseMapper().insertBatch(hours);
+    }
 }
@@ -21,6 +21,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import xyz.playedu.api.caches.CourseCatalog;
+import xyz.playedu.api.caches.CourseSearchIndex;
+import xyz.playedu.api.caches.PaginateCountCache;
 import xyz.playedu.api.domain.Course;
 import xyz.playedu.api.domain.CourseDepartment;
 import xyz.playedu.api.domain.ResourceCourseCategory;
@@ -28,9 +31,11 @@ import xyz.playedu.api.exception.NotFoundException;
 import xyz.playedu.api.mapper.CourseMapper;
 import xyz.playedu.api.service.CourseDepartmentService;
 import xyz.playedu.api.service.CourseService;
+import xyz.playedu.api.service.ResourceCategoryService;
 import xyz.playedu.api.service.internal.ResourceCourseCategoryService;
 import xyz.playedu.api.types.paginate.CoursePaginateFiler;
 import xyz.playedu.api.types.paginate.PaginationResult;
+import xyz.playedu.api.util.HelperUtil;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -43,18 +48,41 @@ import java.util.stream.Collectors;
 @Service
 public class CourseServiceImpl extends ServiceImpl<CourseMapper, Course> implements CourseService {
 
+    @Autowired private PaginateCountCache paginateCountCache;
+
+    @Autowired private CourseSearchIndex courseSearchIndex;
+
+    @Autowired private CourseCatalog courseCatalog;
+
     @Autowired private CourseDepartmentService courseDepartmentService;
 
     @Autowired private ResourceCourseCategoryService courseCategoryService;
 
+    @Autowired private ResourceCategoryService resourceCategoryService;
+
     @Override
     public PaginationResult<Course> paginate(int page, int size, CoursePaginateFiler filter) {
         filter.setPageStart((page - 1) * size);
         filter.setPageSize(size);
+        if (filter.getTitle() != null && filter.getTitle().trim().length() > 0) {
+            // 标题模糊查询优先走进程内索引
+            filter.setTitleCourseIds(courseSearchIndex.searchByTitle(filter.getTitle()));
+        }
+        filter.setDepIdList(HelperUtil.parseIntegerList(filter.getDepIds()));
+        List<Integer> categoryIds = HelperUtil.parseIntegerList(filter.getCategoryIds());
+        if (categoryIds != null) {
+            // 按父分类筛选时包含全部子分类
+            filter.setCategoryIdList(resourceCategoryService.getSubtreeIds(categoryIds));
+        }
 
         PaginationResult<Course> pageResult = new PaginationResult<>();
         pageResult.setData(getBaseMapper().paginate(filter));
-        pageResult.setTotal(getBaseMapper().paginateCount(filter));
+        pageResult.setTotal(
+                paginateCountCache.remember(
+                        PaginateCountCache.SCOPE_COURSE,
+                        filter,
+                        () -> getBaseMapper().paginateCount(filter),
+                        () -> getBaseMapper().estimateTotal()));
 
         return pageResult;
     }
@@ -84,6 +112,10 @@ public class CourseServiceImpl extends ServiceImpl<CourseMapper, Course> impleme
         // 关联部门
         relateDepartments(course, depIds);
 
+        courseSearchIndex.put(course);
+        courseCatalog.refresh(course.getId());
+        paginateCountCache.forget(PaginateCountCache.SCOPE_COURSE);
+
         return course;
     }
 
@@ -128,7 +160,7 @@ public class CourseServiceImpl extends ServiceImpl<CourseMapper, Course> impleme
                         }
                     });
         }
-        courseCategoryService.saveBatch(resourceCourseCategories);
+        courseCategoryService.store(resourceCourseCategories);
     }
 
     @Override
@@ -160,6 +192,10 @@ public class CourseServiceImpl extends ServiceImpl<CourseMapper, Course> impleme
 
         resetRelateCategories(newCourse, categoryIds);
         resetRelateDepartments(newCourse, depIds);
+
+        courseSearchIndex.put(newCourse);
+        courseCatalog.refresh(newCourse.getId());
+        paginateCountCache.forget(PaginateCountCache.SCOPE_COURSE);
     }
 
     @Override
@@ -187,11 +223,13 @@ public class CourseServiceImpl extends ServiceImpl<CourseMapper, Course> impleme
         course.setId(courseId);
         course.setClassHour(classHour);
         updateById(course);
+        courseCatalog.refresh(courseId);
     }
 
     @Override
     public void removeCategoryIdRelate(Integer categoryId) {
         courseCategoryService.removeByCategoryId(categoryId);
+        courseCatalog.removeCategory(categoryId);
     }
 
     @Override
@@ -209,11 +247,15 @@ public class CourseServiceImpl extends ServiceImpl<CourseMapper, Course> impleme
 
     @Override
     public List<Course> getOpenCoursesAndShow(Integer limit) {
-        return getBaseMapper().openCoursesAndShow(limit, 0);
+        return getOpenCoursesAndShow(limit, 0);
     }
 
     @Override
     public List<Course> getOpenCoursesAndShow(Integer limit, Integer categoryId) {
+        List<Course> courses = courseCatalog.openCourses(limit, categoryId);
+        if (courses != null) {
+            return courses;
+        }
         return getBaseMapper().openCoursesAndShow(limit, categoryId);
     }
 
@@ -222,6 +264,10 @@ public class CourseServiceImpl extends ServiceImpl<CourseMapper, Course> impleme
         if (depIds == null || depIds.size() == 0) {
             return new ArrayList<>();
         }
+        List<Course> courses = courseCatalog.depCourses(depIds, categoryId);
+        if (courses != null) {
+            return courses;
+        }
         List<Integer> courseIds = courseDepartmentService.getCourseIdsByDepIds(depIds);
         if (courseIds == null || courseIds.size() == 0) {
             return new ArrayList<>();
@@ -250,6 +296,10 @@ public class CourseServiceImpl extends ServiceImpl<CourseMapper, Course> impleme
         if (depIds == null || depIds.size() == 0) {
             return new ArrayList<>();
         }
+        List<Course> courses = courseCatalog.depCourses(depIds, null);
+        if (courses != null) {
+            return courses;
+        }
         List<Integer> courseIds = courseDepartmentService.getCourseIdsByDepIds(depIds);
         if (courseIds == null || courseIds.size() == 0) {
             return new ArrayList<>();
@@ -257,6 +307,23 @@ public class CourseServiceImpl extends ServiceImpl<CourseMapper, Course> impleme
         return list(query().getWrapper().in("id", courseIds).eq("is_show", 1));
     }
 
+    @Override
+    public Map<Integer, List<Course>> getDepCoursesAndShowGroup(List<Integer> depIds) {
+        Map<Integer, List<Course>> result = new HashMap<>();
+        if (depIds == null || depIds.size() == 0) {
+            return result;
+        }
+        Map<Integer, List<Course>> catalogResult = courseCatalog.depCoursesGroup(depIds);
+        if (catalogResult != null) {
+            return catalogResult;
+        }
+        depIds.forEach(depId -> result.put(depId, new ArrayList<>()));
+        getBaseMapper()
+                .depCoursesAndShow(depIds)
+                .forEach(item -> result.get(item.getDepId()).add(item.getCourse()));
+        return result;
+    }
+
     @Override
     public Map<Integer, List<Integer>> getCategoryIdsGroup(List<Integer> courseIds) {
         if (courseIds == null || courseIds.size() == 0) {
@@ -301,6 +368,10 @@ public class CourseServiceImpl extends ServiceImpl<CourseMapper, Course> impleme
 
     @Override
     public Long total() {
-        return count();
+        return paginateCountCache.remember(
+                PaginateCountCache.SCOPE_COURSE,
+                null,
+                this::count,
+                () -> getBaseMapper().estimateTotal());
     }
 }
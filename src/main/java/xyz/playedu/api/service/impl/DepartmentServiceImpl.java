@@ -15,7 +15,6 @@
  */
 package xyz.playedu.api.service.impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 
 import lombok.extern.slf4j.Slf4j;
@@ -24,11 +23,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import xyz.playedu.api.caches.DepartmentTree;
+import xyz.playedu.api.caches.RelationCountCache;
 import xyz.playedu.api.domain.CourseDepartment;
 import xyz.playedu.api.domain.Department;
 import xyz.playedu.api.domain.UserDepartment;
 import xyz.playedu.api.exception.NotFoundException;
 import xyz.playedu.api.mapper.DepartmentMapper;
+import xyz.playedu.api.mapper.SortMapper;
 import xyz.playedu.api.service.CourseDepartmentService;
 import xyz.playedu.api.service.DepartmentService;
 import xyz.playedu.api.service.internal.UserDepartmentService;
@@ -47,10 +49,16 @@ import java.util.stream.Collectors;
 public class DepartmentServiceImpl extends ServiceImpl<DepartmentMapper, Department>
         implements DepartmentService {
 
+    @Autowired private SortMapper sortMapper;
+
     @Autowired private UserDepartmentService userDepartmentService;
 
     @Autowired private CourseDepartmentService courseDepartmentService;
 
+    @Autowired private DepartmentTree departmentTree;
+
+    @Autowired private RelationCountCache relationCountCache;
+
     @Override
     public List<Department> listByParentId(Integer id) {
         return list(query().getWrapper().eq("parent_id", id).orderByAsc("sort"));
@@ -76,6 +84,7 @@ public class DepartmentServiceImpl extends ServiceImpl<DepartmentMapper, Departm
         Department department = findOrFail(id);
         updateParentChain(department.getParentChain(), childrenParentChain(department));
         removeById(department.getId());
+        departmentTree.changed();
     }
 
     @Override
@@ -107,45 +116,23 @@ public class DepartmentServiceImpl extends ServiceImpl<DepartmentMapper, Departm
 
         department = getById(department.getId());
         updateParentChain(childrenParentChain(department), childrenChainPrefix);
+        departmentTree.changed();
     }
 
+    /** 子孙部门整体改挂:一条UPDATE完成,不再逐行读取改写 */
     private void updateParentChain(String newChildrenPC, String oldChildrenPC) {
-        List<Department> children =
-                list(query().getWrapper().like("parent_chain", oldChildrenPC + "%"));
-        if (children.size() == 0) {
-            return;
-        }
-
-        ArrayList<Department> updateRows = new ArrayList<>();
-        for (Department tmpDepartment : children) {
-            Department tmpUpdateDepartment = new Department();
-            tmpUpdateDepartment.setId(tmpDepartment.getId());
-
-            // parentChain计算
-            String pc = newChildrenPC;
-            if (!tmpDepartment.getParentChain().equals(oldChildrenPC)) {
-                pc =
-                        tmpDepartment
-                                .getParentChain()
-                                .replaceFirst(
-                                        oldChildrenPC + ",",
-                                        newChildrenPC.length() == 0
-                                                ? newChildrenPC
-                                                : newChildrenPC + ',');
-            }
-            tmpUpdateDepartment.setParentChain(pc);
-
-            // parentId计算
-            int parentId = 0;
-            if (pc != null && pc.length() > 0) {
-                String[] parentIds = pc.split(",");
-                parentId = Integer.parseInt(parentIds[parentIds.length - 1]);
-            }
-            tmpUpdateDepartment.setParentId(parentId);
-
-            updateRows.add(tmpUpdateDepartment);
+        int parentId = 0;
+        if (newChildrenPC.length() > 0) {
+            parentId =
+                    Integer.parseInt(newChildrenPC.substring(newChildrenPC.lastIndexOf(',') + 1));
         }
-        updateBatchById(updateRows);
+        getBaseMapper()
+                .updateParentChain(
+                        oldChildrenPC,
+                        newChildrenPC,
+                        parentId,
+                        newChildrenPC.length() == 0 ? "" : newChildrenPC + ",",
+                        oldChildrenPC.length() + 2);
     }
 
     @Override
@@ -187,13 +174,12 @@ public class DepartmentServiceImpl extends ServiceImpl<DepartmentMapper, Departm
         department.setUpdatedAt(new Date());
 
         save(department);
+        departmentTree.changed();
     }
 
     @Override
     public void remoteRelateUsersByDepId(Integer depId) {
-        QueryWrapper<UserDepartment> wrapper =
-                userDepartmentService.query().getWrapper().eq("dep_id", depId);
-        userDepartmentService.remove(wrapper);
+        userDepartmentService.removeByDepId(depId);
     }
 
     @Override
@@ -226,22 +212,9 @@ public class DepartmentServiceImpl extends ServiceImpl<DepartmentMapper, Departm
 
     @Override
     public void resetSort(List<Integer> ids) {
-        if (ids == null || ids.size() == 0) {
-            return;
-        }
-        List<Department> departments = new ArrayList<>();
-        int sortVal = 0;
-        for (Integer idItem : ids) {
-            Integer finalSortVal = ++sortVal;
-            departments.add(
-                    new Department() {
-                        {
-                            setId(idItem);
-                            setSort(finalSortVal);
-                        }
-                    });
+        if (sortMapper.resetSort("departments", null, null, ids, 1) > 0) {
+            departmentTree.changed();
         }
-        updateBatchById(departments);
     }
 
     @Override
@@ -262,11 +235,19 @@ public class DepartmentServiceImpl extends ServiceImpl<DepartmentMapper, Departm
 
     @Override
     public Map<Integer, Integer> getDepartmentsUserCount() {
-        return getBaseMapper().getDepartmentsUserCount().stream()
-                .collect(
-                        Collectors.toMap(
-                                DepartmentsUserCountMapRes::getDepId,
-                                DepartmentsUserCountMapRes::getTotal));
+        return relationCountCache.counts(
+                RelationCountCache.SCOPE_DEPARTMENT_USER,
+                () ->
+                        getBaseMapper().getDepartmentsUserCount().stream()
+                                .collect(
+                                        Collectors.toMap(
+                                                DepartmentsUserCountMapRes::getDepId,
+                                                DepartmentsUserCountMapRes::getTotal)));
+    }
+
+    @Override
+    public Map<Integer, Integer> getDepartmentsSubtreeUserCount(Map<Integer, Integer> userCount) {
+        return RelationCountCache.subtreeTotals(userCount, departmentTree::ancestorIds);
     }
 
     @Override
@@ -17,10 +17,14 @@ package xyz.playedu.api.service.impl;
 
 import io.minio.*;
 import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
 
 import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -32,12 +36,18 @@ import xyz.playedu.api.vendor.PlayEduMinioClient;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
+@Slf4j
 public class MinioServiceImpl implements MinioService {
 
+    // S3批量删除接口单次最多1000个对象
+    private static final int REMOVE_BATCH_SIZE = 1000;
+
     @Autowired private AppConfigService appConfigService;
 
     @SneakyThrows
@@ -138,6 +148,42 @@ public class MinioServiceImpl implements MinioService {
                 .removeObject(RemoveObjectArgs.builder().bucket(bucket()).object(path).build());
     }
 
+    /** 使用批量删除接口,每1000个对象一次请求,删除失败的对象仅记录日志 */
+    @Override
+    @SneakyThrows
+    public void removeByPaths(List<String> paths) {
+        if (paths == null || paths.isEmpty()) {
+            return;
+        }
+        MinioClient client = getMinioClient();
+        String bucket = bucket();
+        for (int from = 0; from < paths.size(); from += REMOVE_BATCH_SIZE) {
+            List<DeleteObject> objects = new ArrayList<>();
+            for (String path :
+                    paths.subList(from, Math.min(from + REMOVE_BATCH_SIZE, paths.size()))) {
+                objects.add(new DeleteObject(path));
+            }
+            // 返回结果是惰性的,需遍历才会真正发起请求
+            Iterable<Result<DeleteError>> results =
+                    client.removeObjects(
+                            RemoveObjectsArgs.builder().bucket(bucket).objects(objects).build());
+            for (Result<DeleteError> result : results) {
+                DeleteError error = result.get();
+                log.error("MinIO文件删除失败,path={},message={}", error.objectName(), error.message());
+            }
+        }
+    }
+
+    @Override
+    @Async
+    public void removeByPathsAsync(List<String> paths) {
+        try {
+            removeByPaths(paths);
+        } catch (Exception e) {
+            log.error("MinIO文件批量删除失败,count={}", paths.size(), e);
+        }
+    }
+
     @Override
     @SneakyThrows
     public String saveBytes(byte[] file, String savePath, String contentType) {
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.service.impl;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+
+import org.springframework.stereotype.Service;
+
+import xyz.playedu.api.domain.PurgeJob;
+import xyz.playedu.api.mapper.PurgeJobMapper;
+import xyz.playedu.api.service.PurgeJobService;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * @description 针对表【purge_jobs】的数据库操作Service实现
+ */
+@Service
+public class PurgeJobServiceImpl extends ServiceImpl<PurgeJobMapper, PurgeJob>
+        implements PurgeJobService {
+    @Override
+    public void enqueue(String type, Integer targetId) {
+        PurgeJob job = new PurgeJob();
+        job.setType(type);
+        job.setTargetId(targetId);
+        job.setCreatedAt(new Date());
+        save(job);
+    }
+
+    @Override
+    public List<PurgeJob> pending(int limit) {
+        return list(query().getWrapper().orderByAsc("id").last("limit " + limit));
+    }
+
+    @Override
+    public int deleteChunk(String table, String column, Integer value, int limit) {
+        return getBaseMapper().deleteChunk(table, column, value, limit);
+    }
+}
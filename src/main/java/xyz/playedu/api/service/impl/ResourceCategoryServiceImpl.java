@@ -15,25 +15,25 @@
  */
 package xyz.playedu.api.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import xyz.playedu.api.caches.RelationCountCache;
 import xyz.playedu.api.domain.ResourceCategory;
 import xyz.playedu.api.domain.ResourceCategoryRelation;
 import xyz.playedu.api.domain.ResourceCourseCategory;
 import xyz.playedu.api.exception.NotFoundException;
 import xyz.playedu.api.mapper.ResourceCategoryMapper;
+import xyz.playedu.api.mapper.SortMapper;
 import xyz.playedu.api.service.ResourceCategoryService;
 import xyz.playedu.api.service.internal.ResourceCategoryRelationService;
 import xyz.playedu.api.service.internal.ResourceCourseCategoryService;
 
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -46,10 +46,14 @@ public class ResourceCategoryServiceImpl
         extends ServiceImpl<ResourceCategoryMapper, ResourceCategory>
         implements ResourceCategoryService {
 
+    @Autowired private SortMapper sortMapper;
+
     @Autowired private ResourceCourseCategoryService resourceCourseCategoryService;
 
     @Autowired private ResourceCategoryRelationService resourceCategoryRelationService;
 
+    @Autowired private RelationCountCache relationCountCache;
+
     @Override
     public List<ResourceCategory> listByParentId(Integer id) {
         return list(query().getWrapper().eq("parent_id", id).orderByAsc("sort"));
@@ -77,6 +81,8 @@ public class ResourceCategoryServiceImpl
         updateParentChain(category.getParentChain(), childrenParentChain(category));
         // 删除记录
         removeById(category.getId());
+        relationCountCache.forget(RelationCountCache.SCOPE_CATEGORY_RESOURCE, category.getId());
+        relationCountCache.forget(RelationCountCache.SCOPE_CATEGORY_COURSE, category.getId());
     }
 
     @Override
@@ -189,6 +195,33 @@ public class ResourceCategoryServiceImpl
         return parentChain;
     }
 
+    /** 分类及其全部子孙分类的id,子孙分类按parent_chain前缀一次查出 */
+    @Override
+    public List<Integer> getSubtreeIds(List<Integer> ids) {
+        if (ids == null || ids.size() == 0) {
+            return new ArrayList<>();
+        }
+        Set<Integer> result = new LinkedHashSet<>(ids);
+        List<ResourceCategory> categories = listByIds(ids);
+        if (categories.size() > 0) {
+            QueryWrapper<ResourceCategory> wrapper =
+                    new QueryWrapper<ResourceCategory>().select("id");
+            wrapper.and(
+                    w -> {
+                        for (ResourceCategory category : categories) {
+                            String prefix = childrenParentChain(category);
+                            w.or(
+                                    q ->
+                                            q.eq("parent_chain", prefix)
+                                                    .or()
+                                                    .likeRight("parent_chain", prefix + ","));
+                        }
+                    });
+            list(wrapper).forEach(category -> result.add(category.getId()));
+        }
+        return new ArrayList<>(result);
+    }
+
     @Override
     public List<Integer> getCourseIdsById(Integer id) {
         return resourceCourseCategoryService
@@ -209,22 +242,7 @@ public class ResourceCategoryServiceImpl
 
     @Override
     public void resetSort(List<Integer> ids) {
-        if (ids == null || ids.size() == 0) {
-            return;
-        }
-        List<ResourceCategory> categories = new ArrayList<>();
-        int sortVal = 0;
-        for (Integer idItem : ids) {
-            Integer finalSortVal = ++sortVal;
-            categories.add(
-                    new ResourceCategory() {
-                        {
-                            setId(idItem);
-                            setSort(finalSortVal);
-                        }
-                    });
-        }
-        updateBatchById(categories);
+        sortMapper.resetSort("resource_categories", null, null, ids, 1);
     }
 
     @Override
@@ -249,6 +267,20 @@ public class ResourceCategoryServiceImpl
                 .collect(Collectors.toMap(ResourceCategory::getId, ResourceCategory::getName));
     }
 
+    @Override
+    public Map<Integer, Integer> getResourceCount() {
+        return relationCountCache.counts(
+                RelationCountCache.SCOPE_CATEGORY_RESOURCE,
+                resourceCategoryRelationService::countGroupByCid);
+    }
+
+    @Override
+    public Map<Integer, Integer> getCourseCount() {
+        return relationCountCache.counts(
+                RelationCountCache.SCOPE_CATEGORY_COURSE,
+                resourceCourseCategoryService::countGroupByCategoryId);
+    }
+
     @Override
     public Long total() {
         return count();
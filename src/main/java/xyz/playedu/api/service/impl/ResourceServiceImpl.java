@@ -21,6 +21,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import xyz.playedu.api.caches.PaginateCountCache;
+import xyz.playedu.api.caches.ResourceSearchIndex;
+import xyz.playedu.api.constant.BackendConstant;
 import xyz.playedu.api.domain.Resource;
 import xyz.playedu.api.domain.ResourceCategoryRelation;
 import xyz.playedu.api.domain.ResourceVideo;
@@ -29,6 +32,7 @@ import xyz.playedu.api.mapper.ResourceMapper;
 import xyz.playedu.api.service.ResourceService;
 import xyz.playedu.api.service.ResourceVideoService;
 import xyz.playedu.api.service.internal.ResourceCategoryRelationService;
+import xyz.playedu.api.types.paginate.CursorPaginationResult;
 import xyz.playedu.api.types.paginate.PaginationResult;
 import xyz.playedu.api.types.paginate.ResourcePaginateFilter;
 
@@ -43,6 +47,10 @@ import java.util.*;
 public class ResourceServiceImpl extends ServiceImpl<ResourceMapper, Resource>
         implements ResourceService {
 
+    @Autowired private PaginateCountCache paginateCountCache;
+
+    @Autowired private ResourceSearchIndex resourceSearchIndex;
+
     @Autowired private ResourceVideoService resourceVideoService;
 
     @Autowired private ResourceCategoryRelationService relationService;
@@ -53,9 +61,14 @@ public class ResourceServiceImpl extends ServiceImpl<ResourceMapper, Resource>
 
         filter.setPageStart((page - 1) * size);
         filter.setPageSize(size);
+        resolveNameFilter(filter);
 
         pageResult.setData(getBaseMapper().paginate(filter));
-        pageResult.setTotal(getBaseMapper().paginateCount(filter));
+        pageResult.setTotal(
+                paginateCountCache.remember(
+                        PaginateCountCache.SCOPE_RESOURCE,
+                        filter,
+                        () -> getBaseMapper().paginateCount(filter)));
 
         return pageResult;
     }
@@ -102,8 +115,11 @@ public class ResourceServiceImpl extends ServiceImpl<ResourceMapper, Resource>
                             }
                         });
             }
-            relationService.saveBatch(relations);
+            relationService.store(relations);
         }
+
+        resourceSearchIndex.put(resource.getId(), resource.getName());
+        paginateCountCache.forget(PaginateCountCache.SCOPE_RESOURCE);
         return resource;
     }
 
@@ -171,6 +187,9 @@ public class ResourceServiceImpl extends ServiceImpl<ResourceMapper, Resource>
                         add(categoryId);
                     }
                 });
+
+        resourceSearchIndex.put(id, name);
+        paginateCountCache.forget(PaginateCountCache.SCOPE_RESOURCE);
     }
 
     @Override
@@ -181,4 +200,75 @@ public class ResourceServiceImpl extends ServiceImpl<ResourceMapper, Resource>
                 .map(ResourceCategoryRelation::getCid)
                 .toList();
     }
+
+    @Override
+    @Transactional
+    public List<String> destroy(List<Resource> resources) {
+        List<String> paths = new ArrayList<>();
+        if (resources == null || resources.isEmpty()) {
+            return paths;
+        }
+
+        List<Resource> all = new ArrayList<>(resources);
+        // 子资源,如: 视频封面截图
+        all.addAll(
+                list(
+                        query().getWrapper()
+                                .in("parent_id", resources.stream().map(Resource::getId).toList())
+                                .select("id", "path", "type")));
+
+        List<Integer> ids = all.stream().map(Resource::getId).distinct().toList();
+        List<Integer> videoIds =
+                all.stream()
+                        .filter(item -> BackendConstant.RESOURCE_TYPE_VIDEO.equals(item.getType()))
+                        .map(Resource::getId)
+                        .toList();
+
+        resourceVideoService.removeByRids(videoIds);
+        relationService.removeByRids(ids);
+        removeByIds(ids);
+
+        resourceSearchIndex.removeAll(ids);
+        paginateCountCache.forget(PaginateCountCache.SCOPE_RESOURCE);
+
+        for (Resource item : all) {
+            if (item.getPath() != null && !item.getPath().isEmpty()) {
+                paths.add(item.getPath());
+            }
+        }
+        return paths;
+    }
+
+    @Override
+    public CursorPaginationResult<Resource> cursorPaginate(
+            String cursor, int size, ResourcePaginateFilter filter, boolean withTotal) {
+        // 仅支持有索引的排序字段,其余按id排序
+        if (!"created_at".equals(filter.getSortField())) {
+            filter.setSortField("id");
+        }
+        resolveNameFilter(filter);
+
+        return CursorPaginationResult.paginate(
+                cursor,
+                size,
+                filter,
+                withTotal
+                        ? () ->
+                                paginateCountCache.remember(
+                                        PaginateCountCache.SCOPE_RESOURCE,
+                                        filter,
+                                        () -> getBaseMapper().paginateCount(filter))
+                        : null,
+                () -> getBaseMapper().cursorPaginate(filter),
+                Resource::getId,
+                item -> "created_at".equals(filter.getSortField()) ? item.getCreatedAt() : null);
+    }
+
+    // 名称模糊查询优先走进程内索引,避免 LIKE '%name%' 全表扫描
+    private void resolveNameFilter(ResourcePaginateFilter filter) {
+        if (filter.getName() == null || filter.getName().trim().length() == 0) {
+            return;
+        }
+        filter.setNameResourceIds(resourceSearchIndex.searchByName(filter.getName()));
+    }
 }
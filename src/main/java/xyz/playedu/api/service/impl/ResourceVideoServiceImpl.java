@@ -50,6 +50,14 @@ public class ResourceVideoServiceImpl extends ServiceImpl<ResourceVideoMapper, R
         remove(query().getWrapper().eq("rid", resourceId));
     }
 
+    @Override
+    public void removeByRids(List<Integer> resourceIds) {
+        if (resourceIds == null || resourceIds.isEmpty()) {
+            return;
+        }
+        remove(query().getWrapper().in("rid", resourceIds));
+    }
+
     @Override
     public List<ResourceVideo> chunksByRids(List<Integer> resourceIds) {
         if (resourceIds == null || resourceIds.size() == 0) {
@@ -21,6 +21,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 
+import xyz.playedu.api.caches.CourseHourPlaybackHistogram;
+import xyz.playedu.api.caches.PaginateCountCache;
 import xyz.playedu.api.domain.UserCourseHourRecord;
 import xyz.playedu.api.event.UserCourseHourFinishedEvent;
 import xyz.playedu.api.mapper.UserCourseHourRecordMapper;
@@ -28,6 +30,7 @@ import xyz.playedu.api.service.UserCourseHourRecordService;
 import xyz.playedu.api.types.mapper.UserCourseHourRecordCourseCountMapper;
 import xyz.playedu.api.types.mapper.UserCourseHourRecordUserCountMapper;
 import xyz.playedu.api.types.mapper.UserCourseHourRecordUserFirstCreatedAtMapper;
+import xyz.playedu.api.types.paginate.CursorPaginationResult;
 import xyz.playedu.api.types.paginate.PaginationResult;
 import xyz.playedu.api.types.paginate.UserCourseHourRecordPaginateFilter;
 
@@ -45,6 +48,10 @@ public class UserCourseHourRecordServiceImpl
         extends ServiceImpl<UserCourseHourRecordMapper, UserCourseHourRecord>
         implements UserCourseHourRecordService {
 
+    @Autowired private PaginateCountCache paginateCountCache;
+
+    @Autowired private CourseHourPlaybackHistogram playbackHistogram;
+
     @Autowired private ApplicationContext ctx;
 
     @Override
@@ -87,6 +94,7 @@ public class UserCourseHourRecordServiceImpl
             insertRecord.setUpdatedAt(new Date());
 
             save(insertRecord);
+            playbackHistogram.reach(hourId, totalDuration, 0, duration);
         } else if (record.getFinishedDuration() < duration) {
             UserCourseHourRecord updateRecord = new UserCourseHourRecord();
             updateRecord.setId(record.getId());
@@ -96,6 +104,11 @@ public class UserCourseHourRecordServiceImpl
             updateRecord.setFinishedAt(finishedAt);
 
             updateById(updateRecord);
+            playbackHistogram.reach(hourId, totalDuration, record.getFinishedDuration(), duration);
+        }
+
+        if (record == null || isFinished) {
+            paginateCountCache.forget(PaginateCountCache.SCOPE_USER_COURSE_HOUR_RECORD);
         }
 
         if (isFinished) {
@@ -124,8 +137,11 @@ public class UserCourseHourRecordServiceImpl
     }
 
     @Override
-    public void removeByCourseId(Integer courseId) {
-        remove(query().getWrapper().eq("course_id", courseId));
+    public List<UserCourseHourRecord> chunk(Integer userId, List<Integer> hourIds) {
+        if (hourIds == null || hourIds.size() == 0) {
+            return new ArrayList<>();
+        }
+        return list(query().getWrapper().eq("user_id", userId).in("hour_id", hourIds));
     }
 
     @Override
@@ -149,11 +165,22 @@ public class UserCourseHourRecordServiceImpl
     @Override
     public void remove(Integer userId, Integer courseId) {
         remove(query().getWrapper().eq("user_id", userId).eq("course_id", courseId));
+        paginateCountCache.forget(PaginateCountCache.SCOPE_USER_COURSE_HOUR_RECORD);
+    }
+
+    @Override
+    public void remove(List<Integer> userIds, Integer courseId) {
+        if (userIds == null || userIds.isEmpty()) {
+            return;
+        }
+        remove(query().getWrapper().in("user_id", userIds).eq("course_id", courseId));
+        paginateCountCache.forget(PaginateCountCache.SCOPE_USER_COURSE_HOUR_RECORD);
     }
 
     @Override
     public void remove(Integer userId) {
         remove(query().getWrapper().eq("user_id", userId));
+        paginateCountCache.forget(PaginateCountCache.SCOPE_USER_COURSE_HOUR_RECORD);
     }
 
     @Override
@@ -165,7 +192,11 @@ public class UserCourseHourRecordServiceImpl
 
         PaginationResult<UserCourseHourRecord> pageResult = new PaginationResult<>();
         pageResult.setData(getBaseMapper().paginate(filter));
-        pageResult.setTotal(getBaseMapper().paginateCount(filter));
+        pageResult.setTotal(
+                paginateCountCache.remember(
+                        PaginateCountCache.SCOPE_USER_COURSE_HOUR_RECORD,
+                        filter,
+                        () -> getBaseMapper().paginateCount(filter)));
 
         return pageResult;
     }
@@ -177,6 +208,7 @@ public class UserCourseHourRecordServiceImpl
                         .eq("user_id", userId)
                         .eq("course_id", courseId)
                         .eq("hour_id", hourId));
+        paginateCountCache.forget(PaginateCountCache.SCOPE_USER_COURSE_HOUR_RECORD);
     }
 
     @Override
@@ -187,4 +219,28 @@ public class UserCourseHourRecordServiceImpl
         }
         return getBaseMapper().getUserCourseHourUserFirstCreatedAt(courseId, userIds);
     }
+
+    @Override
+    public CursorPaginationResult<UserCourseHourRecord> cursorPaginate(
+            String cursor, int size, UserCourseHourRecordPaginateFilter filter, boolean withTotal) {
+        // 仅支持有索引的排序字段,其余按id排序
+        if (!"created_at".equals(filter.getSortField())) {
+            filter.setSortField("id");
+        }
+
+        return CursorPaginationResult.paginate(
+                cursor,
+                size,
+                filter,
+                withTotal
+                        ? () ->
+                                paginateCountCache.remember(
+                                        PaginateCountCache.SCOPE_USER_COURSE_HOUR_RECORD,
+                                        filter,
+                                        () -> getBaseMapper().paginateCount(filter))
+                        : null,
+                () -> getBaseMapper().cursorPaginate(filter),
+                UserCourseHourRecord::getId,
+                item -> "created_at".equals(filter.getSortField()) ? item.getCreatedAt() : null);
+    }
 }
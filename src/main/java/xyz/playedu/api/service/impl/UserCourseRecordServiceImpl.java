@@ -17,11 +17,15 @@ package xyz.playedu.api.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import xyz.playedu.api.caches.CourseLearnStatsCache;
+import xyz.playedu.api.caches.PaginateCountCache;
 import xyz.playedu.api.domain.UserCourseRecord;
 import xyz.playedu.api.mapper.UserCourseRecordMapper;
 import xyz.playedu.api.service.UserCourseRecordService;
+import xyz.playedu.api.types.paginate.CursorPaginationResult;
 import xyz.playedu.api.types.paginate.PaginationResult;
 import xyz.playedu.api.types.paginate.UserCourseRecordPaginateFilter;
 
@@ -39,6 +43,10 @@ public class UserCourseRecordServiceImpl
         extends ServiceImpl<UserCourseRecordMapper, UserCourseRecord>
         implements UserCourseRecordService {
 
+    @Autowired private PaginateCountCache paginateCountCache;
+
+    @Autowired private CourseLearnStatsCache courseLearnStatsCache;
+
     @Override
     public UserCourseRecord find(Integer userId, Integer courseId) {
         return getOne(query().getWrapper().eq("user_id", userId).eq("course_id", courseId));
@@ -75,6 +83,7 @@ public class UserCourseRecordServiceImpl
             insertRecord.setUpdatedAt(new Date());
 
             save(insertRecord);
+            courseLearnStatsCache.incrStarted(courseId, progress, isFinished);
         } else {
             UserCourseRecord updateRecord = new UserCourseRecord();
             updateRecord.setId(record.getId());
@@ -85,6 +94,12 @@ public class UserCourseRecordServiceImpl
             updateRecord.setProgress(progress);
 
             updateById(updateRecord);
+            courseLearnStatsCache.incrProgress(
+                    courseId, progress - record.getProgress(), isFinished ? 1 : 0);
+        }
+
+        if (record == null || isFinished) {
+            paginateCountCache.forget(PaginateCountCache.SCOPE_USER_COURSE_RECORD);
         }
     }
 
@@ -112,7 +127,11 @@ public class UserCourseRecordServiceImpl
         filter.setPageSize(size);
 
         PaginationResult<UserCourseRecord> result = new PaginationResult<>();
-        result.setTotal(getBaseMapper().paginateTotal(filter));
+        result.setTotal(
+                paginateCountCache.remember(
+                        PaginateCountCache.SCOPE_USER_COURSE_RECORD,
+                        filter,
+                        () -> getBaseMapper().paginateTotal(filter)));
         result.setData(getBaseMapper().paginate(filter));
 
         return result;
@@ -121,11 +140,8 @@ public class UserCourseRecordServiceImpl
     @Override
     public void destroy(Integer courseId, List<Integer> ids) {
         remove(query().getWrapper().in("id", ids).eq("course_id", courseId));
-    }
-
-    @Override
-    public void removeByCourseId(Integer courseId) {
-        remove(query().getWrapper().eq("course_id", courseId));
+        courseLearnStatsCache.forget(courseId);
+        paginateCountCache.forget(PaginateCountCache.SCOPE_USER_COURSE_RECORD);
     }
 
     @Override
@@ -136,11 +152,23 @@ public class UserCourseRecordServiceImpl
     @Override
     public void destroy(Integer userId, Integer courseId) {
         remove(query().getWrapper().in("user_id", userId).eq("course_id", courseId));
+        courseLearnStatsCache.forget(courseId);
+        paginateCountCache.forget(PaginateCountCache.SCOPE_USER_COURSE_RECORD);
     }
 
     @Override
-    public void destroy(Integer userId) {
-        remove(query().getWrapper().in("user_id", userId));
+    public List<UserCourseRecord> chunks(Integer courseId, List<Integer> ids, List<String> fields) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return list(query().getWrapper().eq("course_id", courseId).in("id", ids).select(fields));
+    }
+
+    @Override
+    public List<Integer> getCourseIdsByUserId(Integer userId) {
+        return list(query().getWrapper().eq("user_id", userId).select("course_id")).stream()
+                .map(UserCourseRecord::getCourseId)
+                .toList();
     }
 
     @Override
@@ -160,5 +188,34 @@ public class UserCourseRecordServiceImpl
         newRecord.setIsFinished(0);
 
         updateById(newRecord);
+        courseLearnStatsCache.incrProgress(
+                courseId,
+                newRecord.getProgress() - record.getProgress(),
+                record.getIsFinished() == 1 ? -1 : 0);
+        paginateCountCache.forget(PaginateCountCache.SCOPE_USER_COURSE_RECORD);
+    }
+
+    @Override
+    public CursorPaginationResult<UserCourseRecord> cursorPaginate(
+            String cursor, int size, UserCourseRecordPaginateFilter filter, boolean withTotal) {
+        // 仅支持有索引的排序字段,其余按id排序
+        if (!"created_at".equals(filter.getSortField())) {
+            filter.setSortField("id");
+        }
+
+        return CursorPaginationResult.paginate(
+                cursor,
+                size,
+                filter,
+                withTotal
+                        ? () ->
+                                paginateCountCache.remember(
+                                        PaginateCountCache.SCOPE_USER_COURSE_RECORD,
+                                        filter,
+                                        () -> getBaseMapper().paginateTotal(filter))
+                        : null,
+                () -> getBaseMapper().cursorPaginate(filter),
+                UserCourseRecord::getId,
+                item -> "created_at".equals(filter.getSortField()) ? item.getCreatedAt() : null);
     }
 }
@@ -23,6 +23,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import xyz.playedu.api.caches.PaginateCountCache;
+import xyz.playedu.api.caches.UserSearchIndex;
 import xyz.playedu.api.constant.SystemConstant;
 import xyz.playedu.api.domain.User;
 import xyz.playedu.api.domain.UserDepartment;
@@ -31,6 +33,7 @@ import xyz.playedu.api.exception.ServiceException;
 import xyz.playedu.api.mapper.UserMapper;
 import xyz.playedu.api.service.UserService;
 import xyz.playedu.api.service.internal.UserDepartmentService;
+import xyz.playedu.api.types.paginate.CursorPaginationResult;
 import xyz.playedu.api.types.paginate.PaginationResult;
 import xyz.playedu.api.types.paginate.UserPaginateFilter;
 import xyz.playedu.api.util.HelperUtil;
@@ -47,6 +50,10 @@ import java.util.stream.Collectors;
 @Service
 public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements UserService {
 
+    @Autowired private PaginateCountCache paginateCountCache;
+
+    @Autowired private UserSearchIndex userSearchIndex;
+
     @Autowired private UserDepartmentService userDepartmentService;
 
     @Override
@@ -59,14 +66,28 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     public PaginationResult<User> paginate(int page, int size, UserPaginateFilter filter) {
         filter.setPageStart((page - 1) * size);
         filter.setPageSize(size);
+        resolveNameFilter(filter);
 
         PaginationResult<User> pageResult = new PaginationResult<>();
         pageResult.setData(getBaseMapper().paginate(filter));
-        pageResult.setTotal(getBaseMapper().paginateCount(filter));
+        pageResult.setTotal(
+                paginateCountCache.remember(
+                        PaginateCountCache.SCOPE_USER,
+                        filter,
+                        () -> getBaseMapper().paginateCount(filter),
+                        () -> getBaseMapper().estimateTotal()));
 
         return pageResult;
     }
 
+    @Override
+    public void insertBatch(List<User> users) {
+        if (users == null || users.isEmpty()) {
+            return;
+        }
+        getBaseMapper().insertBatch(users);
+    }
+
     @Override
     public List<String> existsEmailsByEmails(List<String> emails) {
         return list(query().getWrapper().in("email", emails).select("id", "email")).stream()
@@ -76,8 +97,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
 
     @Override
     public void removeRelateDepartmentsByUserId(Integer userId) {
-        userDepartmentService.remove(
-                userDepartmentService.query().getWrapper().eq("user_id", userId));
+        userDepartmentService.removeByUserId(userId);
     }
 
     @Override
@@ -124,6 +144,9 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
 
         save(user);
         userDepartmentService.storeDepIds(user.getId(), depIds);
+        userSearchIndex.put(user);
+
+        paginateCountCache.forget(PaginateCountCache.SCOPE_USER);
         return user;
     }
 
@@ -165,6 +188,11 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
 
         updateById(newUser);
         userDepartmentService.resetStoreDepIds(newUser.getId(), depIds);
+        userSearchIndex.put(newUser);
+
+        // 学习记录列表支持按学员姓名/邮箱筛选
+        paginateCountCache.forget(
+                PaginateCountCache.SCOPE_USER, PaginateCountCache.SCOPE_USER_COURSE_RECORD);
         return newUser;
     }
 
@@ -220,7 +248,11 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
 
     @Override
     public Long total() {
-        return count();
+        return paginateCountCache.remember(
+                PaginateCountCache.SCOPE_USER,
+                null,
+                this::count,
+                () -> getBaseMapper().estimateTotal());
     }
 
     @Override
@@ -273,4 +305,43 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         user.setAvatar(avatar);
         updateById(user);
     }
+
+    @Override
+    public CursorPaginationResult<User> cursorPaginate(
+            String cursor, int size, UserPaginateFilter filter, boolean withTotal) {
+        // 仅支持有索引的排序字段,其余按id排序
+        if (!"created_at".equals(filter.getSortField())
+                && !"credit1".equals(filter.getSortField())) {
+            filter.setSortField("id");
+        }
+        resolveNameFilter(filter);
+
+        return CursorPaginationResult.paginate(
+                cursor,
+                size,
+                filter,
+                withTotal
+                        ? () ->
+                                paginateCountCache.remember(
+                                        PaginateCountCache.SCOPE_USER,
+                                        filter,
+                                        () -> getBaseMapper().paginateCount(filter))
+                        : null,
+                () -> getBaseMapper().cursorPaginate(filter),
+                User::getId,
+                item ->
+                        "created_at".equals(filter.getSortField())
+                                ? item.getCreatedAt()
+                                : ("credit1".equals(filter.getSortField())
+                                        ? item.getCredit1()
+                                        : null));
+    }
+
+    // 姓名模糊查询优先走进程内索引,避免 LIKE '%name%' 全表扫描
+    private void resolveNameFilter(UserPaginateFilter filter) {
+        if (filter.getName() == null || filter.getName().trim().length() == 0) {
+            return;
+        }
+        filter.setNameUserIds(userSearchIndex.searchByName(filter.getName()));
+    }
 }
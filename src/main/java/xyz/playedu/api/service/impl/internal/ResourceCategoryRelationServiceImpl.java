@@ -17,22 +17,30 @@ package xyz.playedu.api.service.impl.internal;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import xyz.playedu.api.caches.RelationCountCache;
 import xyz.playedu.api.domain.ResourceCategoryRelation;
 import xyz.playedu.api.mapper.ResourceCategoryRelationMapper;
 import xyz.playedu.api.service.internal.ResourceCategoryRelationService;
+import xyz.playedu.api.types.mapper.ResourceCategoryCountMapper;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class ResourceCategoryRelationServiceImpl
         extends ServiceImpl<ResourceCategoryRelationMapper, ResourceCategoryRelation>
         implements ResourceCategoryRelationService {
+
+    @Autowired private RelationCountCache relationCountCache;
+
     @Override
     public void rebuild(Integer resourceId, List<Integer> categoryIds) {
-        remove(query().getWrapper().eq("rid", resourceId));
+        removeByRids(List.of(resourceId));
 
         List<ResourceCategoryRelation> data = new ArrayList<>();
         categoryIds.forEach(
@@ -46,6 +54,44 @@ public class ResourceCategoryRelationServiceImpl
                             });
                 });
 
-        saveBatch(data);
+        store(data);
+    }
+
+    @Override
+    public void store(List<ResourceCategoryRelation> relations) {
+        if (relations == null || relations.isEmpty()) {
+            return;
+        }
+        saveBatch(relations);
+        relationCountCache.incr(
+                RelationCountCache.SCOPE_CATEGORY_RESOURCE,
+                RelationCountCache.deltas(
+                        relations.stream().map(ResourceCategoryRelation::getCid).toList(), 1));
+    }
+
+    @Override
+    public void removeByRids(List<Integer> rids) {
+        if (rids == null || rids.isEmpty()) {
+            return;
+        }
+        List<Integer> cids =
+                list(query().getWrapper().in("rid", rids)).stream()
+                        .map(ResourceCategoryRelation::getCid)
+                        .toList();
+        if (cids.isEmpty()) {
+            return;
+        }
+        remove(query().getWrapper().in("rid", rids));
+        relationCountCache.incr(
+                RelationCountCache.SCOPE_CATEGORY_RESOURCE, RelationCountCache.deltas(cids, -1));
+    }
+
+    @Override
+    public Map<Integer, Integer> countGroupByCid() {
+        return getBaseMapper().countGroupByCid().stream()
+                .collect(
+                        Collectors.toMap(
+                                ResourceCategoryCountMapper::getCid,
+                                ResourceCategoryCountMapper::getTotal));
     }
 }
@@ -17,13 +17,18 @@ package xyz.playedu.api.service.impl.internal;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import xyz.playedu.api.caches.RelationCountCache;
 import xyz.playedu.api.domain.ResourceCourseCategory;
 import xyz.playedu.api.mapper.ResourceCourseCategoryMapper;
 import xyz.playedu.api.service.internal.ResourceCourseCategoryService;
+import xyz.playedu.api.types.mapper.CourseCategoryCountMapper;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * @author tengteng
@@ -35,6 +40,8 @@ public class ResourceCourseCategoryServiceImpl
         extends ServiceImpl<ResourceCourseCategoryMapper, ResourceCourseCategory>
         implements ResourceCourseCategoryService {
 
+    @Autowired private RelationCountCache relationCountCache;
+
     @Override
     public List<Integer> getCourseIdsByCategoryIds(List<Integer> categoryIds) {
         return list(query().getWrapper().in("category_id", categoryIds)).stream()
@@ -44,12 +51,41 @@ public class ResourceCourseCategoryServiceImpl
 
     @Override
     public void removeByCourseId(Integer id) {
+        List<Integer> categoryIds = getCategoryIdsByCourseId(id);
+        if (categoryIds.isEmpty()) {
+            return;
+        }
         remove(query().getWrapper().eq("course_id", id));
+        relationCountCache.incr(
+                RelationCountCache.SCOPE_CATEGORY_COURSE,
+                RelationCountCache.deltas(categoryIds, -1));
     }
 
     @Override
     public void removeByCategoryId(Integer id) {
         remove(query().getWrapper().eq("category_id", id));
+        relationCountCache.forget(RelationCountCache.SCOPE_CATEGORY_COURSE, id);
+    }
+
+    @Override
+    public void store(List<ResourceCourseCategory> relations) {
+        if (relations == null || relations.isEmpty()) {
+            return;
+        }
+        saveBatch(relations);
+        relationCountCache.incr(
+                RelationCountCache.SCOPE_CATEGORY_COURSE,
+                RelationCountCache.deltas(
+                        relations.stream().map(ResourceCourseCategory::getCategoryId).toList(), 1));
+    }
+
+    @Override
+    public Map<Integer, Integer> countGroupByCategoryId() {
+        return getBaseMapper().countGroupByCategoryId().stream()
+                .collect(
+                        Collectors.toMap(
+                                CourseCategoryCountMapper::getCid,
+                                CourseCategoryCountMapper::getTotal));
     }
 
     @Override
@@ -17,14 +17,16 @@ package xyz.playedu.api.service.impl.internal;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import xyz.playedu.api.caches.RelationCountCache;
+import xyz.playedu.api.caches.UserLearnRankCache;
 import xyz.playedu.api.domain.UserDepartment;
 import xyz.playedu.api.mapper.UserDepartmentMapper;
 import xyz.playedu.api.service.internal.UserDepartmentService;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * @author tengteng
@@ -35,6 +37,10 @@ import java.util.List;
 public class UserDepartmentServiceImpl extends ServiceImpl<UserDepartmentMapper, UserDepartment>
         implements UserDepartmentService {
 
+    @Autowired private RelationCountCache relationCountCache;
+
+    @Autowired private UserLearnRankCache userLearnRankCache;
+
     @Override
     public List<Integer> getUserIdsByDepIds(List<Integer> depIds) {
         return list(query().getWrapper().in("dep_id", depIds)).stream()
@@ -59,11 +65,58 @@ public class UserDepartmentServiceImpl extends ServiceImpl<UserDepartmentMapper,
                     });
         }
         saveBatch(userDepartments);
+        relationCountCache.incr(
+                RelationCountCache.SCOPE_DEPARTMENT_USER,
+                RelationCountCache.deltas(Arrays.asList(depIds), 1));
     }
 
     @Override
     public void resetStoreDepIds(Integer userId, Integer[] depIds) {
-        remove(query().getWrapper().eq("user_id", userId));
+        List<Integer> oldDepIds = removeRelations(userId);
         storeDepIds(userId, depIds);
+        // 仅从已退出部门的排行榜移除,保留的部门继续累计
+        Set<Integer> leftDepIds = new HashSet<>(oldDepIds);
+        if (depIds != null) {
+            leftDepIds.removeAll(Arrays.asList(depIds));
+        }
+        userLearnRankCache.removeDeps(userId, leftDepIds);
+    }
+
+    @Override
+    public void insertBatch(List<UserDepartment> items) {
+        if (items == null || items.isEmpty()) {
+            return;
+        }
+        getBaseMapper().insertBatch(items);
+        relationCountCache.incr(
+                RelationCountCache.SCOPE_DEPARTMENT_USER,
+                RelationCountCache.deltas(
+                        items.stream().map(UserDepartment::getDepId).toList(), 1));
+    }
+
+    @Override
+    public void removeByUserId(Integer userId) {
+        userLearnRankCache.removeDeps(userId, removeRelations(userId));
+    }
+
+    /** 删除学员的全部部门关联,返回原部门id */
+    private List<Integer> removeRelations(Integer userId) {
+        List<Integer> depIds =
+                list(query().getWrapper().eq("user_id", userId)).stream()
+                        .map(UserDepartment::getDepId)
+                        .toList();
+        if (depIds.isEmpty()) {
+            return depIds;
+        }
+        remove(query().getWrapper().eq("user_id", userId));
+        relationCountCache.incr(
+                RelationCountCache.SCOPE_DEPARTMENT_USER, RelationCountCache.deltas(depIds, -1));
+        return depIds;
+    }
+
+    @Override
+    public void removeByDepId(Integer depId) {
+        remove(query().getWrapper().eq("dep_id", depId));
+        relationCountCache.forget(RelationCountCache.SCOPE_DEPARTMENT_USER, depId);
     }
 }
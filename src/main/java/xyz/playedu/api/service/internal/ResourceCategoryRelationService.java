@@ -20,7 +20,14 @@ import com.baomidou.mybatisplus.extension.service.IService;
 import xyz.playedu.api.domain.ResourceCategoryRelation;
 
 import java.util.List;
+import java.util.Map;
 
 public interface ResourceCategoryRelationService extends IService<ResourceCategoryRelation> {
     void rebuild(Integer resourceId, List<Integer> categoryIds);
+
+    void store(List<ResourceCategoryRelation> relations);
+
+    void removeByRids(List<Integer> rids);
+
+    Map<Integer, Integer> countGroupByCid();
 }
@@ -20,6 +20,7 @@ import com.baomidou.mybatisplus.extension.service.IService;
 import xyz.playedu.api.domain.ResourceCourseCategory;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author tengteng
@@ -32,6 +33,10 @@ public interface ResourceCourseCategoryService extends IService<ResourceCourseCa
 
     void removeByCourseId(Integer id);
 
+    void store(List<ResourceCourseCategory> relations);
+
+    Map<Integer, Integer> countGroupByCategoryId();
+
     void removeByCategoryId(Integer id);
 
     List<Integer> getCategoryIdsByCourseId(Integer courseId);
@@ -32,4 +32,10 @@ public interface UserDepartmentService extends IService<UserDepartment> {
     void storeDepIds(Integer userId, Integer[] depIds);
 
     void resetStoreDepIds(Integer userId, Integer[] depIds);
+
+    void insertBatch(List<UserDepartment> items);
+
+    void removeByUserId(Integer userId);
+
+    void removeByDepId(Integer depId);
 }
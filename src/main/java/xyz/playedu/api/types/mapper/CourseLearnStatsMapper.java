@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.types.mapper;
+
+import lombok.Data;
+
+/** 线上课学习统计(按课程聚合) */
+@Data
+public class CourseLearnStatsMapper {
+    private Integer courseId;
+
+    // 有学习进度的学员数
+    private Long started;
+
+    // 已学完的学员数
+    private Long finished;
+
+    // 学习进度之和
+    private Long progressSum;
+
+    // 学习时长之和[毫秒]
+    private Long duration;
+}
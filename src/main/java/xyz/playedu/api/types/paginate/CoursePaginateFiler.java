@@ -17,6 +17,8 @@ package xyz.playedu.api.types.paginate;
 
 import lombok.Data;
 
+import java.util.List;
+
 /**
  * @Author 杭州白书科技有限公司
  *
@@ -27,10 +29,19 @@ public class CoursePaginateFiler {
 
     private String title;
 
+    // 由标题搜索索引解析出的候选课程id,不为null时不再执行 title LIKE
+    private List<Integer> titleCourseIds;
+
     private String depIds;
 
+    // 由depIds解析,包含0时匹配未关联部门的课程
+    private List<Integer> depIdList;
+
     private String categoryIds;
 
+    // 由categoryIds解析并展开子分类,包含0时匹配未分类的课程
+    private List<Integer> categoryIdList;
+
     private Integer isRequired;
 
     private String sortField;
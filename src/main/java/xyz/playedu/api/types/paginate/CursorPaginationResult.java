@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.types.paginate;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Data
+public class CursorPaginationResult<T> {
+
+    private List<T> data;
+
+    // 未要求统计总数时为null
+    private Long total;
+
+    // 没有下一页时为null
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+
+    // 每页最大数量
+    public static final int MAX_SIZE = 1000;
+
+    /**
+     * 游标分页:多读取一条用于判断是否存在下一页,以本页最后一条记录生成下一页游标
+     *
+     * @param size 每页数量,超出[1,MAX_SIZE]时取边界值
+     * @param counter 统计总数,为null时不统计
+     * @param loader 按filter读取数据
+     * @param cursorValue 记录=>排序字段值,按id排序时返回null
+     */
+    public static <T> CursorPaginationResult<T> paginate(
+            String cursor,
+            int size,
+            CursorPaginateFilter filter,
+            Supplier<Long> counter,
+            Supplier<List<T>> loader,
+            Function<T, Integer> id,
+            Function<T, Object> cursorValue) {
+        size = Math.max(1, Math.min(size, MAX_SIZE));
+
+        CursorPaginationResult<T> result = new CursorPaginationResult<>();
+        if (counter != null) {
+            result.setTotal(counter.get());
+        }
+
+        PaginationCursor paginationCursor = PaginationCursor.decode(cursor);
+        if (paginationCursor != null) {
+            filter.setCursorValue(paginationCursor.getValue());
+            filter.setCursorId(paginationCursor.getId());
+        }
+        filter.setPageSize(size + 1);
+
+        List<T> data = loader.get();
+        if (data.size() > size) {
+            data = new ArrayList<>(data.subList(0, size));
+            T last = data.get(size - 1);
+            result.setNextCursor(PaginationCursor.encode(cursorValue.apply(last), id.apply(last)));
+        }
+        result.setData(data);
+        return result;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.types.paginate;
+
+import cn.hutool.core.date.DateTime;
+
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * 游标分页的游标
+ *
+ * <p>由上一页最后一条记录的排序字段值与主键组成,按 (排序字段,id) 做 seek 查询
+ */
+@Data
+public class PaginationCursor {
+
+    private static final String SEPARATOR = "|";
+
+    // 排序字段值,按id排序时为空
+    private String value;
+
+    private Integer id;
+
+    public static String encode(Object value, Integer id) {
+        String valueStr = "";
+        if (value instanceof Date) {
+            valueStr = DateTime.of((Date) value).toString("yyyy-MM-dd HH:mm:ss");
+        } else if (value != null) {
+            valueStr = value.toString();
+        }
+        String raw = valueStr + SEPARATOR + id;
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标
+     *
+     * @return 游标为空或格式错误返回null
+     */
+    public static PaginationCursor decode(String cursor) {
+        if (cursor == null || cursor.trim().length() == 0) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            if (index == -1) {
+                return null;
+            }
+            PaginationCursor paginationCursor = new PaginationCursor();
+            paginationCursor.setValue(raw.substring(0, index));
+            paginationCursor.setId(Integer.valueOf(raw.substring(index + 1)));
+            return paginationCursor;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
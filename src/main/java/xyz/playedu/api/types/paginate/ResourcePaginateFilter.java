@@ -17,16 +17,21 @@ package xyz.playedu.api.types.paginate;
 
 import lombok.Data;
 
+import java.util.List;
+
 /**
  * @Author 杭州白书科技有限公司
  *
  * @create 2023/2/23 11:18
  */
 @Data
-public class ResourcePaginateFilter {
+public class ResourcePaginateFilter implements CursorPaginateFilter {
 
     private String name;
 
+    // 由名称搜索索引解析出的候选资源id,不为null时不再执行 name LIKE
+    private List<Integer> nameResourceIds;
+
     private String extension;
 
     private String disk;
@@ -44,4 +49,8 @@ public class ResourcePaginateFilter {
     private Integer pageStart;
 
     private Integer pageSize;
+
+    // 游标分页[上一页最后一条记录的排序字段值及id]
+    private String cursorValue;
+    private Integer cursorId;
 }
@@ -23,11 +23,15 @@ import lombok.Data;
  * @create 2023/4/17 17:10
  */
 @Data
-public class UserCourseHourRecordPaginateFilter {
+public class UserCourseHourRecordPaginateFilter implements CursorPaginateFilter {
     private Integer userId;
     private Integer pageStart;
     private Integer pageSize;
     private String sortField;
     private String sortAlgo;
     private Integer isFinished;
+
+    // 游标分页[上一页最后一条记录的排序字段值及id]
+    private String cursorValue;
+    private Integer cursorId;
 }
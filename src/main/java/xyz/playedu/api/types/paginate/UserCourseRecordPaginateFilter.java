@@ -23,7 +23,7 @@ import lombok.Data;
  * @create 2023/3/24 16:10
  */
 @Data
-public class UserCourseRecordPaginateFilter {
+public class UserCourseRecordPaginateFilter implements CursorPaginateFilter {
     private Integer courseId;
     private String email;
     private String name;
@@ -34,4 +34,8 @@ public class UserCourseRecordPaginateFilter {
     private Integer pageSize;
     private Integer userId;
     private Integer isFinished;
+
+    // 游标分页[上一页最后一条记录的排序字段值及id]
+    private String cursorValue;
+    private Integer cursorId;
 }
@@ -25,7 +25,7 @@ import java.util.List;
  * @create 2023/2/23 14:23
  */
 @Data
-public class UserPaginateFilter {
+public class UserPaginateFilter implements CursorPaginateFilter {
 
     private String name;
     private String email;
@@ -40,10 +40,17 @@ public class UserPaginateFilter {
 
     private List<Integer> depIds;
 
+    // 由姓名搜索索引解析出的候选学员id,不为null时不再执行 name LIKE
+    private List<Integer> nameUserIds;
+
     // 排序控制
     private String sortField;
     private String sortAlgo;
 
     private Integer pageStart;
     private Integer pageSize;
+
+    // 游标分页[上一页最后一条记录的排序字段值及id]
+    private String cursorValue;
+    private Integer cursorId;
 }
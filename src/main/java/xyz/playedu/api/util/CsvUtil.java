@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/** CSV读写(RFC 4180) */
+public class CsvUtil {
+
+    /** Excel打开UTF-8编码的CSV需要BOM */
+    public static final String BOM = "\uFEFF";
+
+    public static void writeRow(Writer writer, Object... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escape(fields[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    public static String escape(Object field) {
+        if (field == null) {
+            return "";
+        }
+        String value = field.toString();
+        // 文本以公式字符开头时加单引号,避免Excel将其作为公式执行(CSV注入);数值类型保持原样
+        if (field instanceof CharSequence && isFormula(value)) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0
+                && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static boolean isFormula(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        char c = value.charAt(0);
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+    }
+
+    /**
+     * 逐行读取CSV,每解析出一行回调一次,不会将整个文件读入内存
+     *
+     * <p>支持双引号包裹的字段(含逗号、换行及转义的双引号),忽略开头的BOM
+     *
+     * @param reader 需支持mark,如BufferedReader
+     */
+    public static void read(Reader reader, Consumer<List<String>> consumer) throws IOException {
+        List<String> row = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean first = true;
+        boolean pending = false; // 当前行是否有未提交的内容
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (first) {
+                first = false;
+                if (c == '\uFEFF') {
+                    continue;
+                }
+            }
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+                continue;
+            }
+            if (c == '"') {
+                quoted = true;
+                pending = true;
+            } else if (c == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+                pending = true;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                if (pending) {
+                    row.add(field.toString());
+                    consumer.accept(row);
+                }
+                row = new ArrayList<>();
+                field.setLength(0);
+                pending = false;
+            } else {
+                field.append((char) c);
+                pending = true;
+            }
+        }
+        if (pending) {
+            row.add(field.toString());
+            consumer.accept(row);
+        }
+    }
+}
@@ -187,4 +187,23 @@ public class HelperUtil {
         String[] array = filename.split("\\.");
         return array[array.length - 1].toLowerCase();
     }
+
+    /**
+     * 解析逗号分隔的整数id
+     *
+     * @return 字符串为空时返回null,非数字项忽略
+     */
+    public static List<Integer> parseIntegerList(String str) {
+        if (str == null || str.trim().isEmpty()) {
+            return null;
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (String item : str.split(",")) {
+            item = item.trim();
+            if (item.matches("\\d+")) {
+                ids.add(Integer.valueOf(item));
+            }
+        }
+        return ids;
+    }
 }
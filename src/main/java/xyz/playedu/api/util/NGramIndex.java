@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.util;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 进程内 n-gram 倒排索引
+ *
+ * <p>文本统一转小写后按单字+二元组(bigram)建立倒排,中英文均适用。查询时先求二元组倒排的交集,再用原文做包含校验, 结果与 LIKE '%keyword%' 一致。
+ */
+public class NGramIndex {
+
+    private final Map<String, Set<Integer>> postings = new HashMap<>();
+
+    private final Map<Integer, String> docs = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(Integer id, String text) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(id);
+            String normalized = normalize(text);
+            if (normalized.isEmpty()) {
+                return;
+            }
+            docs.put(id, normalized);
+            for (String gram : grams(normalized)) {
+                postings.computeIfAbsent(gram, k -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer id) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docs.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查询包含关键字的文档id
+     *
+     * @return 升序排列的id,关键字为空返回空列表
+     */
+    public List<Integer> search(String keyword) {
+        String query = normalize(keyword);
+        if (query.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Set<Integer>> sets = new ArrayList<>();
+            for (String gram : queryGrams(query)) {
+                Set<Integer> ids = postings.get(gram);
+                if (ids == null) {
+                    return new ArrayList<>();
+                }
+                sets.add(ids);
+            }
+            // 从最短的倒排开始求交集
+            sets.sort(Comparator.comparingInt(Set::size));
+
+            List<Integer> result = new ArrayList<>();
+            for (Integer id : sets.get(0)) {
+                boolean hit = true;
+                for (int i = 1; i < sets.size() && hit; i++) {
+                    hit = sets.get(i).contains(id);
+                }
+                if (hit && docs.get(id).contains(query)) {
+                    result.add(id);
+                }
+            }
+            Collections.sort(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeDoc(Integer id) {
+        String old = docs.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (String gram : grams(old)) {
+            Set<Integer> ids = postings.get(gram);
+            if (ids == null) {
+                continue;
+            }
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase();
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i < text.length(); i++) {
+            grams.add(text.substring(i, i + 1));
+            if (i + 2 <= text.length()) {
+                grams.add(text.substring(i, i + 2));
+            }
+        }
+        return grams;
+    }
+
+    private static Set<String> queryGrams(String query) {
+        if (query.length() == 1) {
+            return Set.of(query);
+        }
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 2 <= query.length(); i++) {
+            grams.add(query.substring(i, i + 2));
+        }
+        return grams;
+    }
+}
@@ -19,8 +19,11 @@ import jakarta.annotation.Resource;
 
 import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
@@ -29,6 +32,7 @@ import xyz.playedu.api.constant.SystemConstant;
 
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Component
 public class RedisUtil {
@@ -245,6 +249,20 @@ public class RedisUtil {
         return redisTemplate.opsForValue().get(key);
     }
 
+    /**
+     * 批量获取key的值
+     *
+     * @param keys 键
+     * @return 与keys顺序一致的值列表,不存在的key对应null
+     */
+    public static List<Object> mGet(List<String> keys) {
+        List<String> prefixedKeys = new ArrayList<>();
+        for (String key : keys) {
+            prefixedKeys.add(redisPrefix + key);
+        }
+        return redisTemplate.opsForValue().multiGet(prefixedKeys);
+    }
+
     /**
      * 获取旧值并设置新值
      *
@@ -354,7 +372,7 @@ public class RedisUtil {
      * @return 对应的多个键值
      * @author fzr
      */
-    public Map<Object, Object> hmGet(String key) {
+    public static Map<Object, Object> hmGet(String key) {
         key = redisPrefix + key;
         return redisTemplate.opsForHash().entries(key);
     }
@@ -383,7 +401,7 @@ public class RedisUtil {
         key = redisPrefix + key;
         redisTemplate.opsForHash().putAll(key, map);
         if (time > 0) {
-            expire(key, time);
+            redisTemplate.expire(key, time, TimeUnit.SECONDS);
         }
     }
 
@@ -414,7 +432,7 @@ public class RedisUtil {
         key = redisPrefix + key;
         redisTemplate.opsForHash().put(key, item, value);
         if (time > 0) {
-            expire(key, time);
+            redisTemplate.expire(key, time, TimeUnit.SECONDS);
         }
         return true;
     }
@@ -553,6 +571,162 @@ public class RedisUtil {
 
     /* ***************** Set end *************** */
 
+    /**
+     * 有序集合添加成员(成员已存在时更新分值)
+     *
+     * @param key 键
+     * @param value 成员
+     * @param score 分值
+     */
+    public static Boolean zAdd(String key, Object value, double score) {
+        key = redisPrefix + key;
+        return redisTemplate.opsForZSet().add(key, value, score);
+    }
+
+    /**
+     * 有序集合成员分值递增(成员不存在时将创建)
+     *
+     * @param key 键
+     * @param value 成员
+     * @param delta 增量
+     * @return 递增后的分值
+     */
+    public static Double zIncr(String key, Object value, double delta) {
+        key = redisPrefix + key;
+        return redisTemplate.opsForZSet().incrementScore(key, value, delta);
+    }
+
+    /**
+     * 按分值从高到低读取有序集合区间成员(包含分值)
+     *
+     * @param key 键
+     * @param start 开始
+     * @param end 结束 0 到 -1代表所有值
+     * @return Set
+     */
+    public static Set<ZSetOperations.TypedTuple<Object>> zRevRangeWithScores(
+            String key, long start, long end) {
+        key = redisPrefix + key;
+        return redisTemplate.opsForZSet().reverseRangeWithScores(key, start, end);
+    }
+
+    /**
+     * 成员按分值从高到低的排名(从0开始)
+     *
+     * @param key 键
+     * @param value 成员
+     * @return 排名,成员不存在返回null
+     */
+    public static Long zRevRank(String key, Object value) {
+        key = redisPrefix + key;
+        return redisTemplate.opsForZSet().reverseRank(key, value);
+    }
+
+    /**
+     * 获取成员分值
+     *
+     * @param key 键
+     * @param value 成员
+     * @return 分值,成员不存在返回null
+     */
+    public static Double zScore(String key, Object value) {
+        key = redisPrefix + key;
+        return redisTemplate.opsForZSet().score(key, value);
+    }
+
+    /**
+     * 获取有序集合的成员数量
+     *
+     * @param key 键
+     * @return Long
+     */
+    public static Long zCard(String key) {
+        key = redisPrefix + key;
+        return redisTemplate.opsForZSet().zCard(key);
+    }
+
+    /**
+     * 移除有序集合中的成员
+     *
+     * @param key 键
+     * @param values 成员 可以是多个
+     * @return 移除的个数
+     */
+    public static Long zRemove(String key, Object... values) {
+        key = redisPrefix + key;
+        return redisTemplate.opsForZSet().remove(key, values);
+    }
+
+    /* ***************** ZSet end *************** */
+
+    /**
+     * HyperLogLog添加元素
+     *
+     * @param key 键
+     * @param values 元素 可以是多个
+     * @return 基数估算值是否发生变化
+     */
+    public static Long pfAdd(String key, Object... values) {
+        key = redisPrefix + key;
+        return redisTemplate.opsForHyperLogLog().add(key, values);
+    }
+
+    /**
+     * HyperLogLog基数估算,多个键时返回合并后的基数(不落地合并结果)
+     *
+     * @param keys 键 可以是多个
+     * @return Long
+     */
+    public static Long pfCount(String... keys) {
+        String[] prefixedKeys = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            prefixedKeys[i] = redisPrefix + keys[i];
+        }
+        return redisTemplate.opsForHyperLogLog().size(prefixedKeys);
+    }
+
+    /* ***************** HyperLogLog end *************** */
+
+    /** 管道中的写命令,键同样会拼接前缀 */
+    public static class Pipeline {
+        private final RedisOperations<String, Object> operations;
+
+        private Pipeline(RedisOperations<String, Object> operations) {
+            this.operations = operations;
+        }
+
+        public void zIncr(String key, Object value, double delta) {
+            operations.opsForZSet().incrementScore(redisPrefix + key, value, delta);
+        }
+
+        public void pfAdd(String key, Object... values) {
+            operations.opsForHyperLogLog().add(redisPrefix + key, values);
+        }
+
+        public void expire(String key, long second) {
+            operations.expire(redisPrefix + key, second, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 以管道批量执行写命令(一次网络往返),不关心返回值
+     *
+     * @param consumer 在回调中写入命令
+     */
+    public static void pipelined(Consumer<Pipeline> consumer) {
+        redisTemplate.executePipelined(
+                new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <K, V> Object execute(RedisOperations<K, V> operations) {
+                        consumer.accept(new Pipeline((RedisOperations<String, Object>) operations));
+                        return null;
+                    }
+                });
+    }
+
+    /* ***************** Pipeline end *************** */
+
     /**
      * 获取list缓存的内容
      *
@@ -618,7 +792,7 @@ public class RedisUtil {
     public boolean lSet(String key, Object value, long second) {
         key = redisPrefix + key;
         redisTemplate.opsForList().rightPush(key, value);
-        if (second > 0) expire(key, second);
+        if (second > 0) redisTemplate.expire(key, second, TimeUnit.SECONDS);
         return true;
     }
 
@@ -648,7 +822,7 @@ public class RedisUtil {
     public boolean lSet(String key, List<Object> value, Long time) {
         key = redisPrefix + key;
         redisTemplate.opsForList().rightPushAll(key, value);
-        if (time > 0) expire(key, time);
+        if (time > 0) redisTemplate.expire(key, time, TimeUnit.SECONDS);
         return true;
     }
 
@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * XLSX流式读取
+ *
+ * <p>基于StAX逐个解析第一个工作表的单元格,每解析出一行回调一次,内存占用与行数无关(共享字符串表除外)。 对行数、单元格长度及共享字符串表设置上限,防止压缩炸弹耗尽内存。
+ */
+public class XlsxReader {
+
+    private static final String NS_RELATIONSHIPS =
+            "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    // Excel单个工作表的最大行数
+    private static final int MAX_SHEET_ROWS = 1048576;
+
+    // Excel单个工作表的最大列数(A-XFD)
+    private static final int MAX_SHEET_COLUMNS = 16384;
+
+    // Excel单元格的最大字符数
+    private static final int MAX_CELL_LENGTH = 32767;
+
+    private static final int MAX_SHARED_STRINGS = 1000000;
+
+    private static final long MAX_SHARED_STRINGS_LENGTH = 50000000L;
+
+    private static final XMLInputFactory factory = newFactory();
+
+    /**
+     * @param maxRows 最多回调的非空行数(含表头),达到后停止读取
+     */
+    public static void read(File file, int maxRows, Consumer<List<String>> consumer)
+            throws IOException, XMLStreamException {
+        try (ZipFile zip = new ZipFile(file)) {
+            List<String> sharedStrings = sharedStrings(zip);
+            ZipEntry sheet = zip.getEntry(firstSheetPath(zip));
+            if (sheet == null) {
+                throw new IOException("工作表不存在");
+            }
+            try (InputStream in = zip.getInputStream(sheet)) {
+                readSheet(in, sharedStrings, maxRows, consumer);
+            }
+        }
+    }
+
+    private static void readSheet(
+            InputStream in,
+            List<String> sharedStrings,
+            int maxRows,
+            Consumer<List<String>> consumer)
+            throws IOException, XMLStreamException {
+        XMLStreamReader reader = factory.createXMLStreamReader(in);
+        try {
+            int sheetRows = 0;
+            int rows = 0;
+            List<String> row = null;
+            int column = 0;
+            String type = null;
+            StringBuilder value = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "row" -> {
+                            // 空行不回调,但同样计数,避免大量空行耗尽CPU
+                            if (++sheetRows > MAX_SHEET_ROWS) {
+                                throw new IOException("工作表行数超出上限");
+                            }
+                            row = new ArrayList<>();
+                        }
+                        case "c" -> {
+                            String ref = reader.getAttributeValue(null, "r");
+                            column =
+                                    ref == null ? (row == null ? 0 : row.size()) : columnIndex(ref);
+                            type = reader.getAttributeValue(null, "t");
+                            value = new StringBuilder();
+                        }
+                        case "v", "t" -> {
+                            if (value != null) {
+                                value.append(reader.getElementText());
+                                if (value.length() > MAX_CELL_LENGTH) {
+                                    throw new IOException("单元格内容超出上限");
+                                }
+                            }
+                        }
+                        default -> {}
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "c" -> {
+                            if (row != null && value != null) {
+                                // 未带引用的单元格按顺序追加,同样受列数上限约束
+                                if (Math.max(column, row.size()) >= MAX_SHEET_COLUMNS) {
+                                    throw new IOException("工作表列数超出上限");
+                                }
+                                while (row.size() < column) {
+                                    row.add("");
+                                }
+                                row.add(cellValue(type, value.toString(), sharedStrings));
+                            }
+                            value = null;
+                        }
+                        case "row" -> {
+                            if (row != null && row.stream().anyMatch(s -> !s.isEmpty())) {
+                                consumer.accept(row);
+                                if (++rows >= maxRows) {
+                                    return;
+                                }
+                            }
+                            row = null;
+                        }
+                        default -> {}
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static String cellValue(String type, String raw, List<String> sharedStrings) {
+        if ("s".equals(type)) {
+            int index = Integer.parseInt(raw.trim());
+            return index >= 0 && index < sharedStrings.size() ? sharedStrings.get(index) : "";
+        }
+        if ("b".equals(type)) {
+            return "1".equals(raw) ? "TRUE" : "FALSE";
+        }
+        // 整数形式的数值单元格去掉多余的小数位
+        if (type == null || "n".equals(type)) {
+            if (raw.endsWith(".0")) {
+                return raw.substring(0, raw.length() - 2);
+            }
+        }
+        return raw;
+    }
+
+    private static List<String> sharedStrings(ZipFile zip) throws IOException, XMLStreamException {
+        List<String> strings = new ArrayList<>();
+        ZipEntry entry = zip.getEntry("xl/sharedStrings.xml");
+        if (entry == null) {
+            return strings;
+        }
+        try (InputStream in = zip.getInputStream(entry)) {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                long length = 0;
+                StringBuilder item = null;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        if ("si".equals(reader.getLocalName())) {
+                            item = new StringBuilder();
+                        } else if ("t".equals(reader.getLocalName()) && item != null) {
+                            item.append(reader.getElementText());
+                            if (item.length() > MAX_CELL_LENGTH) {
+                                throw new IOException("共享字符串超出上限");
+                            }
+                        } else if ("rPh".equals(reader.getLocalName())) {
+                            // 跳过注音
+                            skip(reader);
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT
+                            && "si".equals(reader.getLocalName())) {
+                        String value = item == null ? "" : item.toString();
+                        length += value.length();
+                        if (strings.size() >= MAX_SHARED_STRINGS
+                                || length > MAX_SHARED_STRINGS_LENGTH) {
+                            throw new IOException("共享字符串表超出上限");
+                        }
+                        strings.add(value);
+                        item = null;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return strings;
+    }
+
+    /** 按workbook.xml中的顺序取第一个工作表的路径 */
+    private static String firstSheetPath(ZipFile zip) throws IOException, XMLStreamException {
+        String defaultPath = "xl/worksheets/sheet1.xml";
+        ZipEntry workbook = zip.getEntry("xl/workbook.xml");
+        ZipEntry rels = zip.getEntry("xl/_rels/workbook.xml.rels");
+        if (workbook == null || rels == null) {
+            return defaultPath;
+        }
+
+        String relId = null;
+        try (InputStream in = zip.getInputStream(workbook)) {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext() && relId == null) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT
+                            && "sheet".equals(reader.getLocalName())) {
+                        relId = reader.getAttributeValue(NS_RELATIONSHIPS, "id");
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        if (relId == null) {
+            return defaultPath;
+        }
+
+        try (InputStream in = zip.getInputStream(rels)) {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT
+                            && "Relationship".equals(reader.getLocalName())
+                            && relId.equals(reader.getAttributeValue(null, "Id"))) {
+                        String target = reader.getAttributeValue(null, "Target");
+                        if (target.startsWith("/")) {
+                            return target.substring(1);
+                        }
+                        return "xl/" + target;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return defaultPath;
+    }
+
+    private static void skip(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /** 单元格引用(如AB12)的列序号,从0开始;超过XFD的引用直接拒绝,避免溢出及按列补齐耗尽内存 */
+    static int columnIndex(String ref) throws IOException {
+        int index = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char c = ref.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            index = index * 26 + (c - 'A' + 1);
+            if (index > MAX_SHEET_COLUMNS) {
+                throw new IOException("单元格引用超出列数上限");
+            }
+        }
+        return index - 1;
+    }
+
+    private static XMLInputFactory newFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // 禁用外部实体,防止XXE
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
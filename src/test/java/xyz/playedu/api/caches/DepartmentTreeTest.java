@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.caches;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import xyz.playedu.api.domain.Department;
+import xyz.playedu.api.mapper.DepartmentMapper;
+import xyz.playedu.api.util.RedisUtil;
+
+import java.util.List;
+
+public class DepartmentTreeTest {
+
+    private MockedStatic<RedisUtil> redisUtil;
+
+    private DepartmentTree tree;
+
+    @BeforeEach
+    public void setUp() {
+        redisUtil = mockStatic(RedisUtil.class);
+        redisUtil.when(() -> RedisUtil.get(anyString())).thenReturn(null);
+
+        // 1 -> (2 -> 4, 3), 5;部门6的父部门不存在,按一级部门处理
+        DepartmentMapper departmentMapper = mock(DepartmentMapper.class);
+        when(departmentMapper.selectList(any()))
+                .thenReturn(
+                        List.of(
+                                department(1, 0),
+                                department(5, 0),
+                                department(2, 1),
+                                department(3, 1),
+                                department(4, 2),
+                                department(6, 99)));
+        tree = new DepartmentTree();
+        ReflectionTestUtils.setField(tree, "departmentMapper", departmentMapper);
+        tree.rebuild();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        redisUtil.close();
+    }
+
+    @Test
+    public void subtreesArePreOrderIntervals() {
+        assertEquals(List.of(2, 4, 3), tree.descendantIds(1));
+        assertEquals(List.of(4), tree.descendantIds(2));
+        assertEquals(List.of(), tree.descendantIds(5));
+        assertEquals(List.of(), tree.descendantIds(100));
+        assertEquals(List.of(2, 4, 5), tree.subtreeIds(List.of(2, 4, 5, 100)));
+    }
+
+    @Test
+    public void ancestorsFollowParents() {
+        assertEquals(List.of(2, 1), tree.ancestorIds(4));
+        assertEquals(List.of(), tree.ancestorIds(6));
+        assertEquals(List.of(4, 2, 1, 3), tree.withAncestorIds(List.of(4, 3, 1)));
+
+        assertTrue(tree.isAncestorOrSelf(1, 4));
+        assertTrue(tree.isAncestorOrSelf(4, 4));
+        assertFalse(tree.isAncestorOrSelf(4, 1));
+        assertFalse(tree.isAncestorOrSelf(2, 3));
+        assertFalse(tree.isAncestorOrSelf(1, 100));
+    }
+
+    @Test
+    public void depthAndContains() {
+        assertEquals(0, tree.depth(1));
+        assertEquals(2, tree.depth(4));
+        assertEquals(0, tree.depth(6));
+        assertEquals(-1, tree.depth(100));
+        assertTrue(tree.contains(6));
+        assertFalse(tree.contains(null));
+    }
+
+    private static Department department(int id, int parentId) {
+        Department department = new Department();
+        department.setId(id);
+        department.setParentId(parentId);
+        return department;
+    }
+}
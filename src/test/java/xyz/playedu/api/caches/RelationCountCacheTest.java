@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.caches;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class RelationCountCacheTest {
+
+    @Test
+    public void deltasCountsRepeatedIds() {
+        assertEquals(Map.of(1, 2, 3, 1), RelationCountCache.deltas(List.of(1, 3, 1), 1));
+        assertEquals(Map.of(1, -2, 3, -1), RelationCountCache.deltas(List.of(1, 3, 1), -1));
+        assertEquals(Map.of(), RelationCountCache.deltas(null, 1));
+    }
+
+    @Test
+    public void subtreeTotalsAddsCountsToEveryAncestor() {
+        // 1 -> 2 -> 3, 1 -> 4
+        Map<Integer, List<Integer>> ancestors =
+                Map.of(1, List.of(), 2, List.of(1), 3, List.of(2, 1), 4, List.of(1));
+        Map<Integer, Integer> totals =
+                RelationCountCache.subtreeTotals(Map.of(1, 1, 3, 5, 4, 2), ancestors::get);
+
+        assertEquals(Map.of(1, 8, 2, 5, 3, 5, 4, 2), totals);
+    }
+
+    @Test
+    public void subtreeTotalsOfEmptyCounts() {
+        assertEquals(Map.of(), RelationCountCache.subtreeTotals(Map.of(), id -> List.of()));
+    }
+}
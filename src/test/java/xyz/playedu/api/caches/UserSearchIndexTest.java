@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.caches;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import xyz.playedu.api.domain.User;
+import xyz.playedu.api.mapper.UserMapper;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class UserSearchIndexTest {
+
+    @Test
+    public void searchFallsBackWhenNotReady() {
+        assertNull(new UserSearchIndex().searchByName("张"));
+    }
+
+    @Test
+    public void searchReturnsNullWhenCandidatesExceedCap() {
+        UserSearchIndex index = index(ChangeFeedIndex.MAX_CANDIDATES + 1);
+
+        assertNull(index.searchByName("学员"));
+        assertEquals(List.of(1), index.searchByName("学员1号"));
+    }
+
+    @Test
+    public void searchReturnsCandidatesWithinCap() {
+        UserSearchIndex index = index(ChangeFeedIndex.MAX_CANDIDATES);
+
+        assertEquals(ChangeFeedIndex.MAX_CANDIDATES, index.searchByName("学员").size());
+    }
+
+    /** 构建包含count个"学员{id}号"的索引,数据不超过一个分块 */
+    private static UserSearchIndex index(int count) {
+        List<User> users =
+                IntStream.rangeClosed(1, count)
+                        .mapToObj(
+                                id -> {
+                                    User user = new User();
+                                    user.setId(id);
+                                    user.setName("学员" + id + "号");
+                                    return user;
+                                })
+                        .toList();
+        UserMapper userMapper = mock(UserMapper.class);
+        when(userMapper.selectList(any())).thenReturn(users, List.of());
+
+        UserSearchIndex index = new UserSearchIndex();
+        ReflectionTestUtils.setField(index, "userMapper", userMapper);
+        ReflectionTestUtils.setField(index, "indexChangeFeed", mock(IndexChangeFeed.class));
+        index.rebuild();
+        return index;
+    }
+}
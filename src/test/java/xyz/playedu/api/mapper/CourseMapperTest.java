@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.Test;
+
+import xyz.playedu.api.types.mapper.DepartmentCourseMapper;
+
+import java.io.InputStream;
+import java.sql.*;
+import java.util.*;
+
+import javax.sql.DataSource;
+
+public class CourseMapperTest {
+
+    private static final String[] COLUMNS = {"dep_id", "id", "title", "is_show"};
+
+    private static final int[] COLUMN_TYPES = {
+        Types.INTEGER, Types.INTEGER, Types.VARCHAR, Types.TINYINT
+    };
+
+    @Test
+    public void depCoursesAndShowKeepsEveryCourseOfDepartment() throws Exception {
+        List<Object[]> rows =
+                List.of(
+                        new Object[] {1, 10, "课程A", 1},
+                        new Object[] {1, 11, "课程B", 1},
+                        new Object[] {2, 10, "课程A", 1});
+
+        List<DepartmentCourseMapper> result;
+        try (SqlSession session = openSession(rows)) {
+            result = session.getMapper(CourseMapper.class).depCoursesAndShow(List.of(1, 2));
+        }
+
+        assertEquals(3, result.size());
+        Map<Integer, List<Integer>> group = new TreeMap<>();
+        result.forEach(
+                item -> {
+                    assertEquals(item.getCourseId(), item.getCourse().getId());
+                    group.computeIfAbsent(item.getDepId(), k -> new ArrayList<>())
+                            .add(item.getCourse().getId());
+                });
+        assertEquals(Map.of(1, List.of(10, 11), 2, List.of(10)), group);
+    }
+
+    private SqlSession openSession(List<Object[]> rows) throws Exception {
+        ResultSet resultSet = resultSet(rows);
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(mock(DatabaseMetaData.class));
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.getConnection()).thenReturn(connection);
+        when(statement.execute()).thenReturn(true);
+        when(statement.getUpdateCount()).thenReturn(-1);
+        when(statement.getResultSet()).thenReturn(resultSet);
+
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setEnvironment(
+                new Environment("test", new JdbcTransactionFactory(), dataSource));
+        String resource = "mapper/CourseMapper.xml";
+        try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+            new XMLMapperBuilder(
+                            inputStream, configuration, resource, configuration.getSqlFragments())
+                    .parse();
+        }
+        return new MybatisSqlSessionFactoryBuilder().build(configuration).openSession();
+    }
+
+    private ResultSet resultSet(List<Object[]> rows) throws SQLException {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(COLUMNS.length);
+        for (int i = 0; i < COLUMNS.length; i++) {
+            when(metaData.getColumnLabel(i + 1)).thenReturn(COLUMNS[i]);
+            when(metaData.getColumnName(i + 1)).thenReturn(COLUMNS[i]);
+            when(metaData.getColumnType(i + 1)).thenReturn(COLUMN_TYPES[i]);
+            when(metaData.getColumnClassName(i + 1))
+                    .thenReturn(
+                            COLUMN_TYPES[i] == Types.VARCHAR
+                                    ? String.class.getName()
+                                    : Integer.class.getName());
+        }
+
+        List<String> columns = Arrays.asList(COLUMNS);
+        int[] cursor = {-1};
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(resultSet.next()).thenAnswer(invocation -> ++cursor[0] < rows.size());
+        when(resultSet.getInt(anyString()))
+                .thenAnswer(
+                        invocation ->
+                                rows.get(cursor[0])[columns.indexOf(invocation.getArgument(0))]);
+        when(resultSet.getString(anyString()))
+                .thenAnswer(
+                        invocation -> {
+                            int index = columns.indexOf(invocation.getArgument(0));
+                            return index < 0 ? null : rows.get(cursor[0])[index];
+                        });
+        when(resultSet.getObject(anyString()))
+                .thenAnswer(
+                        invocation -> {
+                            int index = columns.indexOf(invocation.getArgument(0));
+                            return index < 0 ? null : rows.get(cursor[0])[index];
+                        });
+        return resultSet;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.types.paginate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import lombok.Data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class CursorPaginationResultTest {
+
+    @Data
+    private static class Filter implements CursorPaginateFilter {
+        private String sortField;
+        private Integer pageSize;
+        private String cursorValue;
+        private Integer cursorId;
+    }
+
+    @Test
+    public void sizeIsClampedToBounds() {
+        Filter filter = new Filter();
+        CursorPaginationResult<Integer> result = paginate(null, 0, filter, 3);
+        assertEquals(2, filter.getPageSize());
+        assertEquals(List.of(1), result.getData());
+
+        filter = new Filter();
+        result = paginate(null, 5000, filter, 2000);
+        assertEquals(CursorPaginationResult.MAX_SIZE + 1, filter.getPageSize());
+        assertEquals(CursorPaginationResult.MAX_SIZE, result.getData().size());
+    }
+
+    @Test
+    public void nextCursorPointsAtLastRowOfPage() {
+        Filter filter = new Filter();
+        CursorPaginationResult<Integer> result = paginate(null, 2, filter, 3);
+        assertEquals(List.of(1, 2), result.getData());
+
+        PaginationCursor cursor = PaginationCursor.decode(result.getNextCursor());
+        assertEquals("", cursor.getValue());
+        assertEquals(2, cursor.getId());
+    }
+
+    @Test
+    public void lastPageHasNoNextCursor() {
+        Filter filter = new Filter();
+        CursorPaginationResult<Integer> result = paginate(null, 5, filter, 3);
+        assertEquals(List.of(1, 2, 3), result.getData());
+        assertNull(result.getNextCursor());
+        assertNull(result.getTotal());
+    }
+
+    @Test
+    public void cursorIsAppliedToFilter() {
+        Filter filter = new Filter();
+        paginate(PaginationCursor.encode("2023-01-01 00:00:00", 7), 10, filter, 0);
+        assertEquals("2023-01-01 00:00:00", filter.getCursorValue());
+        assertEquals(7, filter.getCursorId());
+
+        // 无法解析的游标按第一页处理
+        filter = new Filter();
+        paginate("tampered!", 10, filter, 0);
+        assertNull(filter.getCursorId());
+    }
+
+    /** loader按filter的pageSize返回1..rows中的前pageSize条 */
+    private static CursorPaginationResult<Integer> paginate(
+            String cursor, int size, Filter filter, int rows) {
+        return CursorPaginationResult.paginate(
+                cursor,
+                size,
+                filter,
+                null,
+                () ->
+                        IntStream.rangeClosed(1, Math.min(rows, filter.getPageSize()))
+                                .boxed()
+                                .toList(),
+                id -> id,
+                id -> null);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.types.paginate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+public class PaginationCursorTest {
+
+    @Test
+    public void encodeThenDecodeRoundTrip() {
+        PaginationCursor cursor = PaginationCursor.decode(PaginationCursor.encode("a|b", 12));
+        assertEquals("a|b", cursor.getValue());
+        assertEquals(12, cursor.getId());
+
+        // 按id排序时排序字段值为空
+        cursor = PaginationCursor.decode(PaginationCursor.encode(null, 5));
+        assertEquals("", cursor.getValue());
+        assertEquals(5, cursor.getId());
+    }
+
+    @Test
+    public void encodeFormatsDates() {
+        Date date = new Date(1690000000000L);
+        PaginationCursor cursor = PaginationCursor.decode(PaginationCursor.encode(date, 1));
+        assertTrue(cursor.getValue().matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}"));
+    }
+
+    @Test
+    public void decodeRejectsEmptyAndTamperedInput() {
+        assertNull(PaginationCursor.decode(null));
+        assertNull(PaginationCursor.decode(" "));
+        assertNull(PaginationCursor.decode("not base64!"));
+        assertNull(PaginationCursor.decode(encode("no-separator")));
+        assertNull(PaginationCursor.decode(encode("value|abc")));
+        assertNull(PaginationCursor.decode(encode("value|")));
+        assertNull(PaginationCursor.decode(encode("value|99999999999")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CsvUtilTest {
+
+    @Test
+    public void escapeQuotesSpecialCharacters() {
+        assertEquals("", CsvUtil.escape(null));
+        assertEquals("张三", CsvUtil.escape("张三"));
+        assertEquals("\"a,b\"", CsvUtil.escape("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", CsvUtil.escape("say \"hi\""));
+        assertEquals("\"a\nb\"", CsvUtil.escape("a\nb"));
+    }
+
+    @Test
+    public void escapeNeutralizesFormulas() {
+        assertEquals("'=1+1", CsvUtil.escape("=1+1"));
+        assertEquals("'+86 123", CsvUtil.escape("+86 123"));
+        assertEquals("'-2+3", CsvUtil.escape("-2+3"));
+        assertEquals("'@SUM(A1:A2)", CsvUtil.escape("@SUM(A1:A2)"));
+        assertEquals("'\tcmd", CsvUtil.escape("\tcmd"));
+        assertEquals("\"'\rcmd\"", CsvUtil.escape("\rcmd"));
+        assertEquals(
+                "\"'=HYPERLINK(\"\"http://x\"\",\"\"y\"\")\"",
+                CsvUtil.escape("=HYPERLINK(\"http://x\",\"y\")"));
+        // 数值保持原样
+        assertEquals("-5", CsvUtil.escape(-5));
+        assertEquals("a=b", CsvUtil.escape("a=b"));
+    }
+
+    @Test
+    public void writeThenReadRoundTrip() throws Exception {
+        StringWriter writer = new StringWriter();
+        CsvUtil.writeRow(writer, "姓名", "备注");
+        CsvUtil.writeRow(writer, "a,b", "line1\nline2");
+
+        List<List<String>> rows = new ArrayList<>();
+        CsvUtil.read(new StringReader(CsvUtil.BOM + writer), rows::add);
+
+        assertEquals(List.of(List.of("姓名", "备注"), List.of("a,b", "line1\nline2")), rows);
+    }
+}
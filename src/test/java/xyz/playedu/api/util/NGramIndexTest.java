@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class NGramIndexTest {
+
+    @Test
+    public void searchMatchesLikeSemantics() {
+        NGramIndex index = new NGramIndex();
+        index.put(3, "Java 入门课程");
+        index.put(1, "java进阶");
+        index.put(2, "Python 入门");
+        index.put(4, null);
+        index.put(5, "abxbcxca");
+
+        assertEquals(List.of(1, 3), index.search("JAVA"));
+        assertEquals(List.of(2, 3), index.search("入门"));
+        assertEquals(List.of(3), index.search("a 入"));
+        assertEquals(List.of(1), index.search("进"));
+        // 二元组都命中但原文不包含关键字
+        assertEquals(List.of(), index.search("abca"));
+        assertEquals(List.of(), index.search("  "));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    public void putReplacesAndRemoveDropsDocument() {
+        NGramIndex index = new NGramIndex();
+        index.put(1, "张三");
+        index.put(2, "张三丰");
+
+        index.put(1, "李四");
+        assertEquals(List.of(2), index.search("张三"));
+        assertEquals(List.of(1), index.search("李"));
+
+        index.remove(2);
+        index.remove(99);
+        assertEquals(List.of(), index.search("张"));
+        assertEquals(1, index.size());
+
+        index.clear();
+        assertEquals(List.of(), index.search("李"));
+        assertEquals(0, index.size());
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2023 杭州白书科技有限公司
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package xyz.playedu.api.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class XlsxReaderTest {
+
+    @TempDir Path dir;
+
+    @Test
+    public void readsSharedAndInlineStrings() throws Exception {
+        File file =
+                xlsx(
+                        "<si><t>姓名</t></si><si><r><t>张</t></r><r><t>三</t></r><rPh><t>zhang</t></rPh></si>",
+                        "<row r=\"1\"><c r=\"A1\" t=\"s\"><v>0</v></c><c r=\"B1\""
+                            + " t=\"inlineStr\"><is><t>邮箱</t></is></c></row><row r=\"2\"><c"
+                            + " r=\"A2\" t=\"s\"><v>1</v></c><c r=\"B2\"><v>12.0</v></c><c r=\"C2\""
+                            + " t=\"b\"><v>1</v></c></row>");
+
+        assertEquals(List.of(List.of("姓名", "邮箱"), List.of("张三", "12", "TRUE")), read(file, 10));
+    }
+
+    @Test
+    public void fillsSparseCellsAndSkipsEmptyRows() throws Exception {
+        File file =
+                xlsx(
+                        null,
+                        "<row r=\"1\"><c r=\"B1\" t=\"inlineStr\"><is><t>b</t></is></c><c r=\"D1\""
+                            + " t=\"inlineStr\"><is><t>d</t></is></c></row><row r=\"2\"><c r=\"A2\""
+                            + " t=\"inlineStr\"><is><t></t></is></c></row><row r=\"3\"><c"
+                            + " t=\"inlineStr\"><is><t>x</t></is></c><c"
+                            + " t=\"inlineStr\"><is><t>y</t></is></c></row>");
+
+        assertEquals(List.of(List.of("", "b", "", "d"), List.of("x", "y")), read(file, 10));
+    }
+
+    @Test
+    public void stopsAtMaxRows() throws Exception {
+        StringBuilder rows = new StringBuilder();
+        for (int i = 1; i <= 5; i++) {
+            rows.append("<row><c><v>").append(i).append("</v></c></row>");
+        }
+        File file = xlsx(null, rows.toString());
+
+        assertEquals(List.of(List.of("1"), List.of("2")), read(file, 2));
+    }
+
+    @Test
+    public void columnIndexRejectsReferencesBeyondXfd() throws Exception {
+        assertEquals(0, XlsxReader.columnIndex("A1"));
+        assertEquals(27, XlsxReader.columnIndex("AB12"));
+        assertEquals(16383, XlsxReader.columnIndex("XFD1"));
+        assertThrows(IOException.class, () -> XlsxReader.columnIndex("XFE1"));
+        assertThrows(IOException.class, () -> XlsxReader.columnIndex("ZZZZZZZZZZZZ1"));
+    }
+
+    @Test
+    public void rejectsOversizedSheets() throws Exception {
+        File farColumn = xlsx(null, "<row><c r=\"XFE1\"><v>1</v></c></row>");
+        assertThrows(IOException.class, () -> read(farColumn, 10));
+
+        StringBuilder cells = new StringBuilder("<row>");
+        for (int i = 0; i <= 16384; i++) {
+            cells.append("<c><v>1</v></c>");
+        }
+        File manyCells = xlsx(null, cells.append("</row>").toString());
+        assertThrows(IOException.class, () -> read(manyCells, 10));
+
+        File longCell =
+                xlsx(
+                        null,
+                        "<row><c t=\"inlineStr\"><is><t>"
+                                + "a".repeat(32768)
+                                + "</t></is></c></row>");
+        assertThrows(IOException.class, () -> read(longCell, 10));
+
+        File manyRows = xlsx(null, "<row/>".repeat(1048577));
+        assertThrows(IOException.class, () -> read(manyRows, 10));
+    }
+
+    private List<List<String>> read(File file, int maxRows) throws Exception {
+        List<List<String>> rows = new ArrayList<>();
+        XlsxReader.read(file, maxRows, rows::add);
+        return rows;
+    }
+
+    /** 仅包含工作表(及可选共享字符串表)的最小xlsx */
+    private File xlsx(String sharedStrings, String sheetData) throws IOException {
+        File file = File.createTempFile("xlsx", ".xlsx", dir.toFile());
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file))) {
+            if (sharedStrings != null) {
+                entry(zip, "xl/sharedStrings.xml", "<sst>" + sharedStrings + "</sst>");
+            }
+            entry(
+                    zip,
+                    "xl/worksheets/sheet1.xml",
+                    "<worksheet><sheetData>" + sheetData + "</sheetData></worksheet>");
+        }
+        return file;
+    }
+
+    private void entry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+}